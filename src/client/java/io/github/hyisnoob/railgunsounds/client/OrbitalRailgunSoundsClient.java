@@ -2,32 +2,140 @@ package io.github.hyisnoob.railgunsounds.client;
 
 import io.github.hyisnoob.railgunsounds.OrbitalRailgunSounds;
 import io.github.hyisnoob.railgunsounds.client.config.SoundsConfigWrapper;
+import io.github.hyisnoob.railgunsounds.client.handler.PreferenceSync;
 import io.github.hyisnoob.railgunsounds.client.handler.SoundsHandler;
+import io.github.hyisnoob.railgunsounds.client.sound.DecodedSoundCache;
+import io.github.hyisnoob.railgunsounds.client.sound.ImpactSoundManager;
+import io.github.hyisnoob.railgunsounds.client.sound.SeekableSoundInstance;
+import io.github.hyisnoob.railgunsounds.client.sound.SoundPreloader;
+import io.github.hyisnoob.railgunsounds.network.SoundIdTable;
+import io.github.hyisnoob.railgunsounds.network.SoundPacketQueue;
+import io.github.hyisnoob.railgunsounds.registry.SoundsRegistry;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.sound.PositionedSoundInstance;
+import net.minecraft.client.sound.SoundInstance;
+import net.minecraft.resource.ResourceType;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.util.Identifier;
 
 public class OrbitalRailgunSoundsClient implements ClientModInitializer {
     public static SoundsConfigWrapper CONFIG;
-    
+
+    // Sound id table sent by the server, read on the network thread; null until received
+    private static volatile SoundIdTable soundIdTable = null;
+
     @Override
     public void onInitializeClient() {
         CONFIG = SoundsConfigWrapper.createAndLoad();
-        
+
+        // Decode the bundled sounds once per resource reload instead of on every play
+        DecodedSoundCache.setCapacityMegabytes(CONFIG.decodedSoundCacheMegabytes());
+        CONFIG.subscribeToDecodedSoundCacheMegabytes(DecodedSoundCache::setCapacityMegabytes);
+        ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(new SoundPreloader());
+
+        // Caps the railgun sounds playing at once when impacts overlap
+        ImpactSoundManager.setMaxSounds(CONFIG.maxRailgunSounds());
+        CONFIG.subscribeToMaxRailgunSounds(ImpactSoundManager::setMaxSounds);
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+            soundIdTable = null;
+            client.execute(ImpactSoundManager::clear);
+        });
+
         SoundsHandler sounds = new SoundsHandler();
         sounds.initializeClient();
-        
-        // Register packet handler to stop area sounds when player leaves the zone
-        ClientPlayNetworking.registerGlobalReceiver(OrbitalRailgunSounds.STOP_AREA_SOUND_PACKET_ID,
+
+        // Lets the server skip this player entirely while the shoot sound is off
+        PreferenceSync.initialize();
+
+        // The server sends its sound id table once before any command that refers to sounds by index
+        ClientPlayNetworking.registerGlobalReceiver(OrbitalRailgunSounds.SOUND_IDS_PACKET_ID,
+            (client, handler, buf, responseSender) -> soundIdTable = SoundIdTable.read(buf));
+
+        // Register packet handler for the batched play/stop commands sent once per server tick
+        ClientPlayNetworking.registerGlobalReceiver(OrbitalRailgunSounds.SOUND_BATCH_PACKET_ID,
             (client, handler, buf, responseSender) -> {
-                Identifier soundId = buf.readIdentifier();
-                
+                SoundIdTable table = soundIdTable;
+                int count = buf.readVarInt();
+                byte[] ops = new byte[count];
+                Identifier[] soundIds = new Identifier[count];
+                int[] impactIds = new int[count];
+                float[] volumes = new float[count];
+                float[] pitches = new float[count];
+                int[] distances = new int[count];
+                int[] offsetsMs = new int[count];
+
+                for (int i = 0; i < count; i++) {
+                    ops[i] = buf.readByte();
+                    soundIds[i] = SoundIdTable.readSound(buf, table);
+                    impactIds[i] = buf.readVarInt() - 1;
+                    if (ops[i] != SoundPacketQueue.OP_STOP) {
+                        volumes[i] = SoundPacketQueue.dequantize(buf.readUnsignedByte());
+                        pitches[i] = SoundPacketQueue.dequantize(buf.readUnsignedByte());
+                        distances[i] = buf.readVarInt();
+                    }
+                    if (ops[i] == SoundPacketQueue.OP_PLAY_AT) {
+                        offsetsMs[i] = buf.readVarInt();
+                    }
+                }
+
                 client.execute(() -> {
-                    // Stop all instances of this sound for the player
-                    MinecraftClient.getInstance().getSoundManager().stopSounds(soundId, SoundCategory.PLAYERS);
+                    // Commands are applied in the order the server queued them
+                    for (int i = 0; i < count; i++) {
+                        if (soundIds[i] == null) {
+                            // Index missing from the table; the rest of the batch is still usable
+                            continue;
+                        }
+                        if (ops[i] != SoundPacketQueue.OP_STOP && SoundsRegistry.isRailgunShotSound(soundIds[i])) {
+                            // The server detects shots itself, so the shoot sound settings are applied by each listener
+                            if (!CONFIG.enableShootSound()) {
+                                continue;
+                            }
+                            volumes[i] *= client.isWindowFocused() ? (float) CONFIG.shootVolume() : 0.0f;
+                        }
+                        applySoundCommand(client, ops[i], impactIds[i], soundIds[i], volumes[i], pitches[i],
+                                distances[i], offsetsMs[i]);
+                    }
                 });
             });
     }
+
+    private static void applySoundCommand(MinecraftClient client, byte op, int impactId, Identifier soundId,
+                                          float volume, float pitch, int distance, int offsetMs) {
+        if (op == SoundPacketQueue.OP_STOP) {
+            if (impactId >= 0) {
+                // Only the impact the player left; sounds of other impacts keep playing
+                ImpactSoundManager.stop(client.getSoundManager(), impactId);
+            } else {
+                client.getSoundManager().stopSounds(soundId, SoundCategory.PLAYERS);
+            }
+        } else if (impactId >= 0) {
+            // Starts part of the way in when re-entering the range of an impact that is still sounding;
+            // distant variants are short static clips, which always start from the beginning
+            SoundInstance instance = new SeekableSoundInstance(soundId, SoundCategory.PLAYERS, volume, pitch, offsetMs,
+                    SoundsRegistry.getClipLengthMs(soundId));
+            ImpactSoundManager.play(client.getSoundManager(), impactId, instance, distance, offsetMs);
+        } else if (op == SoundPacketQueue.OP_PLAY) {
+            client.getSoundManager().play(new PositionedSoundInstance(
+                    soundId,
+                    SoundCategory.PLAYERS,
+                    volume,
+                    pitch,
+                    SoundInstance.createRandom(),
+                    false,
+                    0,
+                    SoundInstance.AttenuationType.NONE,
+                    0.0,
+                    0.0,
+                    0.0,
+                    true
+            ));
+        } else if (op == SoundPacketQueue.OP_PLAY_AT) {
+            client.getSoundManager().play(new SeekableSoundInstance(soundId, SoundCategory.PLAYERS, volume, pitch, offsetMs,
+                    SoundsRegistry.getClipLengthMs(soundId)));
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package io.github.hyisnoob.railgunsounds.client.config;
 
+import io.github.hyisnoob.railgunsounds.client.sound.ImpactSoundManager;
 import io.wispforest.owo.config.annotation.Config;
 import io.wispforest.owo.config.annotation.Modmenu;
 import io.wispforest.owo.config.annotation.RangeConstraint;
@@ -22,4 +23,13 @@ public class SoundsConfig {
     public boolean enableScopeSound = true;
     public boolean enableShootSound = true;
     public boolean enableEquipSound = true;
+
+    // Memory (in MB) for the decoded streamed sounds; railgun-shoot.ogg alone takes several MB
+    @RangeConstraint(min = 0, max = 512)
+    public int decodedSoundCacheMegabytes = 32;
+
+    // Railgun sounds of overlapping impacts playing at once; the furthest and oldest are dropped first.
+    // The full sound is streamed, so this cannot go past the sound engine's streaming sources
+    @RangeConstraint(min = 1, max = ImpactSoundManager.MAX_STREAMED_SOUNDS)
+    public int maxRailgunSounds = 8;
 }
@@ -0,0 +1,63 @@
+package io.github.hyisnoob.railgunsounds.client.handler;
+
+import io.github.hyisnoob.railgunsounds.OrbitalRailgunSounds;
+import io.github.hyisnoob.railgunsounds.client.OrbitalRailgunSoundsClient;
+import io.github.hyisnoob.railgunsounds.client.sound.ImpactSoundManager;
+import io.github.hyisnoob.railgunsounds.network.PlayerSoundPreferences;
+import net.fabricmc.fabric.api.client.networking.v1.C2SPlayChannelEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.network.PacketByteBuf;
+
+/**
+ * Tells the server which railgun sounds the player wants, so it can leave muted players out of every shot
+ * instead of sending them sounds that are dropped on arrival. Sent once the server announces the channel
+ * and again whenever the shoot sound settings change.
+ */
+public class PreferenceSync {
+    private static final byte NOTHING_SENT = -1;
+
+    // Last flags sent on the current connection; only changes are sent
+    private static byte lastSentFlags = NOTHING_SENT;
+
+    public static void initialize() {
+        // Server channels are only known some time after joining
+        C2SPlayChannelEvents.REGISTER.register((handler, sender, client, channels) -> {
+            if (channels.contains(OrbitalRailgunSounds.PREFERENCES_PACKET_ID)) {
+                client.execute(() -> {
+                    lastSentFlags = NOTHING_SENT;
+                    sync();
+                });
+            }
+        });
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(() -> lastSentFlags = NOTHING_SENT));
+
+        OrbitalRailgunSoundsClient.CONFIG.subscribeToEnableShootSound(enabled -> sync());
+        OrbitalRailgunSoundsClient.CONFIG.subscribeToShootVolume(volume -> sync());
+    }
+
+    private static byte computeFlags() {
+        boolean muted = !OrbitalRailgunSoundsClient.CONFIG.enableShootSound()
+                || OrbitalRailgunSoundsClient.CONFIG.shootVolume() <= 0.0;
+        return muted ? PlayerSoundPreferences.FLAG_SHOT_SOUND_MUTED : 0;
+    }
+
+    private static void sync() {
+        byte flags = computeFlags();
+        if ((flags & PlayerSoundPreferences.FLAG_SHOT_SOUND_MUTED) != 0) {
+            // The server stops sending them, so sounds that are already playing are stopped here
+            ImpactSoundManager.stopAll(MinecraftClient.getInstance().getSoundManager());
+        }
+
+        if (flags == lastSentFlags || !ClientPlayNetworking.canSend(OrbitalRailgunSounds.PREFERENCES_PACKET_ID)) {
+            return;
+        }
+
+        PacketByteBuf buf = PacketByteBufs.create();
+        buf.writeByte(flags);
+        ClientPlayNetworking.send(OrbitalRailgunSounds.PREFERENCES_PACKET_ID, buf);
+        lastSentFlags = flags;
+    }
+}
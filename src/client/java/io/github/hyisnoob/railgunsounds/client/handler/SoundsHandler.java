@@ -1,16 +1,18 @@
 package io.github.hyisnoob.railgunsounds.client.handler;
 
 import io.github.hyisnoob.railgunsounds.client.OrbitalRailgunSoundsClient;
+import io.github.hyisnoob.railgunsounds.client.sound.SeekableSoundInstance;
 import io.github.hyisnoob.railgunsounds.registry.SoundsRegistry;
-import io.netty.buffer.Unpooled;
+import io.github.hyisnoob.railgunsounds.OrbitalRailgunSounds;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.client.sound.PositionedSoundInstance;
 import net.minecraft.client.sound.SoundInstance;
 import net.minecraft.item.Item;
-import net.minecraft.network.PacketByteBuf;
 import net.minecraft.registry.Registries;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.util.Identifier;
@@ -18,16 +20,36 @@ import net.minecraft.util.Identifier;
 public class SoundsHandler {
     private static final Identifier ORBITAL_RAILGUN_ITEM_ID = new Identifier("orbital_railgun", "orbital_railgun");
 
+    // Movement (squared, in blocks) after which the server is told to look for impacts the player walked into
+    private static final double AREA_CHECK_MOVE_THRESHOLD_SQ = 8.0 * 8.0;
+    // While a railgun sound is playing, smaller movements are reported, but at most every few ticks
+    private static final double ACTIVE_AREA_CHECK_MOVE_THRESHOLD_SQ = 1.0;
+    private static final int ACTIVE_AREA_CHECK_INTERVAL_TICKS = 5;
+
     private boolean wasUsing = false;
     private int lastSelectedSlot = -1;
-    private boolean lastCooldownActive = false;
     private Item railgunItem;
 
+    private double lastAreaCheckX;
+    private double lastAreaCheckZ;
+    private int ticksSinceAreaCheck = 0;
+    private long railgunSoundActiveUntil = 0L;
+
     private PositionedSoundInstance scopeSoundInstance;
 
     public void initializeClient() {
         railgunItem = Registries.ITEM.get(ORBITAL_RAILGUN_ITEM_ID);
         ClientTickEvents.END_CLIENT_TICK.register(this::onEndTick);
+
+        // The sound manager does not exist yet while mods initialize
+        ClientLifecycleEvents.CLIENT_STARTED.register(client -> client.getSoundManager().registerListener((sound, soundSet) -> {
+            if (SoundsRegistry.isRailgunShotSound(sound.getId())) {
+                long offsetMs = sound instanceof SeekableSoundInstance seekable ? seekable.getOffsetMs() : 0L;
+                long clipLengthMs = SoundsRegistry.getClipLengthMs(sound.getId());
+                long durationMs = clipLengthMs > 0L ? clipLengthMs : OrbitalRailgunSounds.RAILGUN_SOUND_DURATION_MS;
+                railgunSoundActiveUntil = Math.max(railgunSoundActiveUntil, System.currentTimeMillis() + durationMs - offsetMs);
+            }
+        }));
     }
 
     private void onEndTick(MinecraftClient client) {
@@ -37,15 +59,36 @@ public class SoundsHandler {
 
         boolean focused = client.isWindowFocused();
         float volumeScope = focused ? (float) OrbitalRailgunSoundsClient.CONFIG.scopeVolume() : 0.0f;
-        float volumeShoot = focused ? (float) OrbitalRailgunSoundsClient.CONFIG.shootVolume() : 0.0f;
         float volumeEquip = focused ? (float) OrbitalRailgunSoundsClient.CONFIG.equipVolume() : 0.0f;
 
         handleRailgunUsage(client, player, volumeScope);
-        handleRailgunCooldown(player, volumeShoot);
         handleHotbarSwitch(player, volumeEquip);
 
-        PacketByteBuf areaBuf = new PacketByteBuf(Unpooled.buffer());
-        ClientPlayNetworking.send(SoundsRegistry.AREA_CHECK_PACKET_ID, areaBuf);
+        handleAreaCheck(player);
+    }
+
+    /**
+     * Tells the server the player has moved, but only when it can matter: after a larger move,
+     * or after any small move while a railgun sound is still playing.
+     */
+    private void handleAreaCheck(ClientPlayerEntity player) {
+        ticksSinceAreaCheck++;
+
+        double dx = player.getX() - lastAreaCheckX;
+        double dz = player.getZ() - lastAreaCheckZ;
+        double movedSquared = dx * dx + dz * dz;
+
+        boolean impactActive = System.currentTimeMillis() < railgunSoundActiveUntil;
+        boolean shouldSend = movedSquared >= AREA_CHECK_MOVE_THRESHOLD_SQ
+                || (impactActive && movedSquared >= ACTIVE_AREA_CHECK_MOVE_THRESHOLD_SQ
+                        && ticksSinceAreaCheck >= ACTIVE_AREA_CHECK_INTERVAL_TICKS);
+
+        if (shouldSend) {
+            ClientPlayNetworking.send(SoundsRegistry.AREA_CHECK_PACKET_ID, PacketByteBufs.empty());
+            lastAreaCheckX = player.getX();
+            lastAreaCheckZ = player.getZ();
+            ticksSinceAreaCheck = 0;
+        }
     }
 
     private void handleRailgunUsage(MinecraftClient client, ClientPlayerEntity player, float volumeScope) {
@@ -80,25 +123,6 @@ public class SoundsHandler {
         wasUsing = isUsingRailgun;
     }
 
-    private void handleRailgunCooldown(ClientPlayerEntity player, float volumeShoot) {
-        if (railgunItem != null) {
-            boolean cooldownNow = player.getItemCooldownManager().isCoolingDown(railgunItem);
-            float pitchShoot = 1.0f;
-
-            if (!lastCooldownActive && cooldownNow && OrbitalRailgunSoundsClient.CONFIG.enableShootSound()) {
-                PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
-                buf.writeIdentifier(Registries.SOUND_EVENT.getId(SoundsRegistry.RAILGUN_SHOOT));
-                buf.writeBlockPos(player.getBlockPos());
-                buf.writeFloat(volumeShoot);
-                buf.writeFloat(pitchShoot);
-
-                ClientPlayNetworking.send(SoundsRegistry.PLAY_SOUND_PACKET_ID, buf);
-            }
-
-            lastCooldownActive = cooldownNow;
-        }
-    }
-
     private void handleHotbarSwitch(ClientPlayerEntity player, float volumeEquip) {
         int selected = player.getInventory().selectedSlot;
         if (lastSelectedSlot != selected) {
@@ -0,0 +1,28 @@
+package io.github.hyisnoob.railgunsounds.client.mixin;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.github.hyisnoob.railgunsounds.client.sound.DecodedSoundCache;
+import net.minecraft.client.sound.AudioStream;
+import net.minecraft.client.sound.SoundLoader;
+import net.minecraft.util.Identifier;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(SoundLoader.class)
+public class SoundLoaderMixin {
+    // Streamed plays of a cached sound read the decoded PCM instead of decoding the Ogg file again
+    @Inject(method = "loadStreamed", at = @At("HEAD"), cancellable = true)
+    private void onLoadStreamed(Identifier id, boolean repeatInstantly, CallbackInfoReturnable<CompletableFuture<AudioStream>> cir) {
+        if (repeatInstantly) {
+            return;
+        }
+
+        AudioStream cached = DecodedSoundCache.openCached(id, 0L);
+        if (cached != null) {
+            cir.setReturnValue(CompletableFuture.completedFuture(cached));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.hyisnoob.railgunsounds.client.sound;
+
+import java.nio.ByteBuffer;
+
+import javax.sound.sampled.AudioFormat;
+
+import net.minecraft.client.sound.AudioStream;
+
+/**
+ * Streams a cached decoded sound from a byte offset. The sound engine is handed slices of the shared
+ * PCM buffer, so nothing is copied or decoded while playing.
+ */
+class CachedAudioStream implements AudioStream {
+    private final ByteBuffer pcm;
+    private final AudioFormat format;
+
+    CachedAudioStream(DecodedSoundCache.DecodedSound sound, int byteOffset) {
+        this.pcm = sound.pcm().duplicate();
+        this.pcm.position(byteOffset);
+        this.format = sound.format();
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public ByteBuffer getBuffer(int size) {
+        int remaining = pcm.remaining();
+        if (remaining == 0) {
+            return null;
+        }
+
+        // Keep whole frames in every chunk
+        int frameSize = format.getFrameSize();
+        int length = Math.min(remaining, Math.max(frameSize, size - size % frameSize));
+
+        ByteBuffer chunk = pcm.slice();
+        chunk.limit(length);
+        pcm.position(pcm.position() + length);
+        return chunk;
+    }
+
+    @Override
+    public void close() {
+        // The PCM buffer belongs to the cache
+    }
+}
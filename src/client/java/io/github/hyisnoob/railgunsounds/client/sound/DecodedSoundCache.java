@@ -0,0 +1,160 @@
+package io.github.hyisnoob.railgunsounds.client.sound;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.sound.sampled.AudioFormat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.sound.AudioStream;
+import net.minecraft.client.sound.OggAudioStream;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceFactory;
+import net.minecraft.util.Identifier;
+
+/**
+ * Keeps sounds decoded to PCM so they can be played again, or started at any offset, without decoding
+ * the Ogg file again. Entries are keyed by the sound file location
+ * (e.g. {@code orbital_railgun_sounds:sounds/railgun-shoot.ogg}).
+ *
+ * <p>The PCM data lives in direct buffers, outside the Java heap. The total size is capped and the least
+ * recently played sound is evicted first; evicting only drops the reference, so streams still reading
+ * an evicted sound keep working until they finish. Safe to use from any thread.
+ */
+public class DecodedSoundCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger("orbital_railgun_sounds");
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private static final LinkedHashMap<Identifier, DecodedSound> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedBytes = 0L;
+    private static long capacityBytes = 32L * BYTES_PER_MEGABYTE;
+
+    /**
+     * PCM samples of a whole sound. The buffer is direct (OpenAL reads it in place) and must not be modified;
+     * readers work on duplicates.
+     */
+    public record DecodedSound(ByteBuffer pcm, AudioFormat format) {
+        /**
+         * @return The byte position of the frame played at the given offset, clamped to the end of the sound
+         */
+        public int byteOffset(long offsetMs) {
+            int frameSize = format.getFrameSize();
+            long frame = (long) (offsetMs / 1000.0 * format.getSampleRate());
+            return (int) Math.min((long) pcm.limit(), Math.max(0L, frame) * frameSize);
+        }
+
+        public int sizeBytes() {
+            return pcm.capacity();
+        }
+    }
+
+    /**
+     * Returns the decoded sound, decoding it on a cache miss. Blocking, so call it off the client thread.
+     *
+     * @return The decoded sound, or null if the file is missing or cannot be decoded
+     */
+    public static DecodedSound get(Identifier location) {
+        DecodedSound decoded = getIfCached(location);
+        if (decoded == null) {
+            decoded = decode(MinecraftClient.getInstance().getResourceManager(), location);
+            if (decoded != null) {
+                put(location, decoded);
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * @return The decoded sound if it is already cached, otherwise null. Never decodes.
+     */
+    public static synchronized DecodedSound getIfCached(Identifier location) {
+        return cache.get(location);
+    }
+
+    /**
+     * Opens a stream over a cached sound without decoding anything.
+     *
+     * @return The stream, or null if the sound is not cached
+     */
+    public static AudioStream openCached(Identifier location, long offsetMs) {
+        DecodedSound decoded = getIfCached(location);
+        return decoded != null ? new CachedAudioStream(decoded, decoded.byteOffset(offsetMs)) : null;
+    }
+
+    /**
+     * Adds a decoded sound, evicting the least recently used sounds to stay under the size cap.
+     * Sounds larger than the whole cap are not cached.
+     */
+    public static synchronized void put(Identifier location, DecodedSound decoded) {
+        if (decoded.sizeBytes() > capacityBytes) {
+            return;
+        }
+
+        DecodedSound previous = cache.put(location, decoded);
+        if (previous != null) {
+            cachedBytes -= previous.sizeBytes();
+        }
+        cachedBytes += decoded.sizeBytes();
+        evictToCapacity();
+    }
+
+    /**
+     * Replaces the whole content of the cache, e.g. with the sounds preloaded for a resource reload.
+     */
+    public static synchronized void replaceAll(Map<Identifier, DecodedSound> sounds) {
+        clear();
+        sounds.forEach(DecodedSoundCache::put);
+    }
+
+    public static synchronized void clear() {
+        cache.clear();
+        cachedBytes = 0L;
+    }
+
+    /**
+     * Sets the size cap in megabytes, evicting sounds right away if the cache is now over it.
+     */
+    public static synchronized void setCapacityMegabytes(int megabytes) {
+        capacityBytes = Math.max(0, megabytes) * BYTES_PER_MEGABYTE;
+        evictToCapacity();
+    }
+
+    /**
+     * Decodes a whole Ogg file into a direct PCM buffer.
+     *
+     * @return The decoded sound, or null if the file is missing or cannot be decoded
+     */
+    static DecodedSound decode(ResourceFactory resources, Identifier location) {
+        Optional<Resource> resource = resources.getResource(location);
+        if (resource.isEmpty()) {
+            LOGGER.warn("Sound file {} not found, cannot cache it", location);
+            return null;
+        }
+
+        try (InputStream input = resource.get().getInputStream();
+             OggAudioStream stream = new OggAudioStream(input)) {
+            return new DecodedSound(stream.getBuffer(), stream.getFormat());
+        } catch (IOException e) {
+            LOGGER.warn("Failed to decode sound file {}", location, e);
+            return null;
+        }
+    }
+
+    private static void evictToCapacity() {
+        Iterator<DecodedSound> iterator = cache.values().iterator();
+        while (cachedBytes > capacityBytes && iterator.hasNext()) {
+            // The buffer is freed by the GC once no stream reads it anymore
+            cachedBytes -= iterator.next().sizeBytes();
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.hyisnoob.railgunsounds.client.sound;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.client.sound.SoundInstance;
+import net.minecraft.client.sound.SoundManager;
+
+/**
+ * Tracks the railgun sound playing for each impact, so leaving an impact's range stops only that impact's sound,
+ * and caps how many play at once. When the cap is reached, the sound with the lowest priority is dropped:
+ * the furthest away, with older sounds counting as further (see {@link #AGE_WEIGHT_BLOCKS_PER_SECOND}).
+ * Must only be accessed from the client thread.
+ */
+public class ImpactSoundManager {
+    // Streaming sources the sound engine has; more railgun sounds than this would just fail to play
+    public static final int MAX_STREAMED_SOUNDS = 8;
+    // How many blocks of distance one second of age is worth when ranking sounds
+    private static final double AGE_WEIGHT_BLOCKS_PER_SECOND = 5.0;
+
+    private static final Int2ObjectOpenHashMap<TrackedSound> sounds = new Int2ObjectOpenHashMap<>();
+    private static int maxSounds = MAX_STREAMED_SOUNDS;
+
+    private record TrackedSound(SoundInstance instance, double distance, long startedAtMs) {
+        double priorityScore(long now) {
+            return distance + (now - startedAtMs) / 1000.0 * AGE_WEIGHT_BLOCKS_PER_SECOND;
+        }
+    }
+
+    public static void setMaxSounds(int max) {
+        // Config files written before the cap was lowered may still hold a larger value
+        maxSounds = Math.max(1, Math.min(MAX_STREAMED_SOUNDS, max));
+    }
+
+    /**
+     * Plays the sound of an impact, replacing the one already playing for it. If the cap is reached,
+     * the lowest priority sound is stopped, or the new one is not played at all if it ranks lowest itself.
+     *
+     * @param distance The listener's distance to the impact, in blocks
+     * @param offsetMs How far into the sound playback starts; counts towards its age
+     */
+    public static void play(SoundManager soundManager, int impactId, SoundInstance instance, double distance, long offsetMs) {
+        long now = System.currentTimeMillis();
+        TrackedSound previous = sounds.remove(impactId);
+        if (previous != null) {
+            soundManager.stop(previous.instance);
+        }
+
+        TrackedSound sound = new TrackedSound(instance, distance, now - offsetMs);
+        pruneFinished(soundManager);
+
+        if (sounds.size() >= maxSounds) {
+            int lowestImpact = -1;
+            double lowestScore = sound.priorityScore(now);
+            for (Int2ObjectMap.Entry<TrackedSound> entry : sounds.int2ObjectEntrySet()) {
+                double score = entry.getValue().priorityScore(now);
+                if (score > lowestScore) {
+                    lowestScore = score;
+                    lowestImpact = entry.getIntKey();
+                }
+            }
+
+            if (lowestImpact < 0) {
+                return;
+            }
+            soundManager.stop(sounds.remove(lowestImpact).instance);
+        }
+
+        sounds.put(impactId, sound);
+        soundManager.play(instance);
+    }
+
+    /**
+     * Stops the sound of a single impact, leaving the others playing.
+     */
+    public static void stop(SoundManager soundManager, int impactId) {
+        TrackedSound sound = sounds.remove(impactId);
+        if (sound != null) {
+            soundManager.stop(sound.instance);
+        }
+    }
+
+    /**
+     * Stops the sounds of every impact (e.g. when the player mutes the railgun).
+     */
+    public static void stopAll(SoundManager soundManager) {
+        for (TrackedSound sound : sounds.values()) {
+            soundManager.stop(sound.instance);
+        }
+        sounds.clear();
+    }
+
+    /**
+     * Forgets every tracked sound (e.g. when leaving a world, which stops all sounds anyway).
+     */
+    public static void clear() {
+        sounds.clear();
+    }
+
+    private static void pruneFinished(SoundManager soundManager) {
+        ObjectIterator<TrackedSound> iterator = sounds.values().iterator();
+        while (iterator.hasNext()) {
+            if (!soundManager.isPlaying(iterator.next().instance)) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.hyisnoob.railgunsounds.client.sound;
+
+import java.util.concurrent.CompletableFuture;
+
+import net.minecraft.client.sound.AbstractSoundInstance;
+import net.minecraft.client.sound.AudioStream;
+import net.minecraft.client.sound.SoundInstance;
+import net.minecraft.client.sound.SoundLoader;
+import net.minecraft.client.sound.TickableSoundInstance;
+import net.minecraft.sound.SoundCategory;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
+
+/**
+ * A non-positional sound that starts part of the way into its file, so a player entering the range
+ * of a railgun impact hears the sound where it currently is instead of from the beginning.
+ *
+ * <p>Only takes effect for sounds marked {@code "stream": true} in sounds.json, since the sound engine
+ * only asks the instance for its audio stream when streaming.
+ *
+ * <p>Is also given the length of the sound, so a distant variant that is not streamed (and so always
+ * starts from the beginning) still stops when it would have ended; a length of 0 plays the whole sound.
+ */
+public class SeekableSoundInstance extends AbstractSoundInstance implements TickableSoundInstance {
+    // Wall-clock time at which offset zero of the sound was (or would have been) played
+    private final long startedAtMs;
+    private final long clipLengthMs; // 0 plays the whole sound
+
+    public SeekableSoundInstance(Identifier soundId, SoundCategory category, float volume, float pitch, long offsetMs, long clipLengthMs) {
+        super(soundId, category, SoundInstance.createRandom());
+        this.volume = volume;
+        this.pitch = pitch;
+        this.attenuationType = SoundInstance.AttenuationType.NONE;
+        this.relative = true;
+        this.startedAtMs = System.currentTimeMillis() - Math.max(0L, offsetMs);
+        this.clipLengthMs = clipLengthMs;
+    }
+
+    @Override
+    public boolean isDone() {
+        return clipLengthMs > 0L && getOffsetMs() >= clipLengthMs;
+    }
+
+    @Override
+    public void tick() {
+    }
+
+    /**
+     * @return How far into the sound playback should start right now
+     */
+    public long getOffsetMs() {
+        return System.currentTimeMillis() - startedAtMs;
+    }
+
+    @Override
+    public CompletableFuture<AudioStream> getAudioStream(SoundLoader loader, Identifier id, boolean repeatInstantly) {
+        if (repeatInstantly) {
+            return loader.loadStreamed(id, true);
+        }
+
+        AudioStream cached = DecodedSoundCache.openCached(id, getOffsetMs());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // Not preloaded (e.g. evicted), so decode it once off the client thread
+        return CompletableFuture.supplyAsync(() -> {
+            DecodedSoundCache.DecodedSound decoded = DecodedSoundCache.get(id);
+            if (decoded == null) {
+                return null;
+            }
+            // Measured after decoding, so time spent filling the cache is skipped as well
+            return (AudioStream) new CachedAudioStream(decoded, decoded.byteOffset(getOffsetMs()));
+        }, Util.getMainWorkerExecutor()).thenCompose(stream ->
+                stream != null ? CompletableFuture.completedFuture(stream) : loader.loadStreamed(id, false));
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.hyisnoob.railgunsounds.client.sound;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import io.github.hyisnoob.railgunsounds.OrbitalRailgunSounds;
+import net.fabricmc.fabric.api.resource.IdentifiableResourceReloadListener;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.profiler.Profiler;
+
+/**
+ * Decodes the mod's streamed sounds into {@link DecodedSoundCache} on every resource reload, so the first
+ * play of a sound does not have to decode it. Decoding runs on the reload's background executor;
+ * the cache is only swapped once every sound is ready.
+ *
+ * <p>Short sounds are not decoded here: they are static sounds marked {@code "preload": true} in sounds.json,
+ * which the sound engine loads into its own buffer cache.
+ */
+public class SoundPreloader implements IdentifiableResourceReloadListener {
+    private static final Identifier ID = new Identifier(OrbitalRailgunSounds.MOD_ID, "sound_preloader");
+    // Files of the sounds marked "stream": true in sounds.json
+    private static final List<Identifier> STREAMED_SOUND_FILES = List.of(
+            new Identifier(OrbitalRailgunSounds.MOD_ID, "sounds/railgun-shoot.ogg"));
+
+    @Override
+    public Identifier getFabricId() {
+        return ID;
+    }
+
+    @Override
+    public CompletableFuture<Void> reload(Synchronizer synchronizer, ResourceManager manager,
+                                          Profiler prepareProfiler, Profiler applyProfiler,
+                                          Executor prepareExecutor, Executor applyExecutor) {
+        return CompletableFuture.supplyAsync(() -> decodeBundledSounds(manager), prepareExecutor)
+                .thenCompose(synchronizer::whenPrepared)
+                .thenAcceptAsync(DecodedSoundCache::replaceAll, applyExecutor);
+    }
+
+    private static Map<Identifier, DecodedSoundCache.DecodedSound> decodeBundledSounds(ResourceManager manager) {
+        Map<Identifier, DecodedSoundCache.DecodedSound> decoded = new LinkedHashMap<>();
+        for (Identifier location : STREAMED_SOUND_FILES) {
+            DecodedSoundCache.DecodedSound sound = DecodedSoundCache.decode(manager, location);
+            if (sound != null) {
+                decoded.put(location, sound);
+            }
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.hyisnoob.railgunsounds.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.hyisnoob.railgunsounds.impact.Impact;
+import io.github.hyisnoob.railgunsounds.impact.ImpactRegistry;
+import io.github.hyisnoob.railgunsounds.listener.PlayerAreaListener;
+import net.minecraft.world.World;
+
+/**
+ * Measures the per-player area checks: the bare range test and the state-tracking check
+ * that runs for every player and impact on each shot and re-check.
+ * One invocation checks every player against every live impact.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AreaCheckBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int players;
+
+    @Param({"1", "10", "100"})
+    public int impacts;
+
+    private BenchPlayer[] standIns;
+    private Impact[] liveImpacts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        standIns = BenchPlayer.scatter(players, 42L);
+
+        Random random = new Random(7L);
+        long fireTimestamp = System.currentTimeMillis();
+        liveImpacts = new Impact[impacts];
+        for (int i = 0; i < impacts; i++) {
+            liveImpacts[i] = ImpactRegistry.register(World.OVERWORLD,
+                    BenchPlayer.randomCoordinate(random), 64.0, BenchPlayer.randomCoordinate(random), fireTimestamp);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (BenchPlayer player : standIns) {
+            PlayerAreaListener.clearPlayerState(player.id);
+        }
+        ImpactRegistry.expireImpacts(Long.MAX_VALUE, PlayerAreaListener::onImpactExpired);
+    }
+
+    @Benchmark
+    public void isPlayerInRange(Blackhole blackhole) {
+        for (BenchPlayer player : standIns) {
+            for (Impact impact : liveImpacts) {
+                blackhole.consume(PlayerAreaListener.isPlayerInRange(player.x, player.z, impact.x, impact.z));
+            }
+        }
+    }
+
+    @Benchmark
+    public void handlePlayerAreaCheck(Blackhole blackhole) {
+        for (BenchPlayer player : standIns) {
+            for (Impact impact : liveImpacts) {
+                blackhole.consume(PlayerAreaListener.handlePlayerAreaCheck(player.id, player.x, player.z, impact));
+            }
+        }
+    }
+}
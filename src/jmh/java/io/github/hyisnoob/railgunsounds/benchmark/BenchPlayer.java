@@ -0,0 +1,43 @@
+package io.github.hyisnoob.railgunsounds.benchmark;
+
+import java.util.Random;
+
+/**
+ * Minecraft-free stand-in for a server player: an id and a position.
+ */
+final class BenchPlayer {
+    // Players are spread over a square of this half-size around the origin
+    static final double WORLD_HALF_SIZE = 2000.0;
+
+    final int id; // Stands in for the entity id
+    double x;
+    double y;
+    double z;
+
+    BenchPlayer(int id, double x, double y, double z) {
+        this.id = id;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * Creates players at uniformly random positions. The same seed always gives the same layout.
+     */
+    static BenchPlayer[] scatter(int count, long seed) {
+        Random random = new Random(seed);
+        BenchPlayer[] players = new BenchPlayer[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = new BenchPlayer(
+                    i,
+                    randomCoordinate(random),
+                    64.0,
+                    randomCoordinate(random));
+        }
+        return players;
+    }
+
+    static double randomCoordinate(Random random) {
+        return (random.nextDouble() * 2.0 - 1.0) * WORLD_HALF_SIZE;
+    }
+}
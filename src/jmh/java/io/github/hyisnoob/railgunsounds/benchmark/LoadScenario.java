@@ -0,0 +1,160 @@
+package io.github.hyisnoob.railgunsounds.benchmark;
+
+import java.util.Random;
+
+/**
+ * Synthetic player movement traces and shot schedules driven by {@link LoadTestHarness}.
+ * Every scenario is fully determined by its seed, so runs can be compared before and after a change.
+ */
+enum LoadScenario {
+    /**
+     * Players wander over the whole world; one shot every five seconds at a random player.
+     */
+    RANDOM_WALK {
+        @Override
+        void place(BenchPlayer[] players, double[] headings, Random random, double soundRange) {
+            scatter(players, headings, random);
+        }
+
+        @Override
+        void move(BenchPlayer[] players, double[] headings, Random random, double soundRange) {
+            wander(players, headings, random);
+        }
+
+        @Override
+        boolean firesAt(long tick) {
+            return tick % 100 == 0;
+        }
+
+        @Override
+        int aim(BenchPlayer[] players, Random random, double[] target) {
+            return atRandomPlayer(players, random, target);
+        }
+    },
+
+    /**
+     * Players start in a ring just outside the sound range of the origin and sprint towards it,
+     * so most of them cross the range boundary within a few ticks of each other.
+     * A shot lands near the origin every 30 seconds.
+     */
+    CONVERGE {
+        @Override
+        void place(BenchPlayer[] players, double[] headings, Random random, double soundRange) {
+            for (int i = 0; i < players.length; i++) {
+                double angle = random.nextDouble() * Math.PI * 2.0;
+                double radius = soundRange * (1.05 + random.nextDouble() * 0.5);
+                players[i].x = Math.cos(angle) * radius;
+                players[i].z = Math.sin(angle) * radius;
+                headings[i] = angle + Math.PI;
+            }
+        }
+
+        @Override
+        void move(BenchPlayer[] players, double[] headings, Random random, double soundRange) {
+            for (int i = 0; i < players.length; i++) {
+                BenchPlayer player = players[i];
+                if (player.x * player.x + player.z * player.z > CROWD_RADIUS * CROWD_RADIUS) {
+                    headings[i] = Math.atan2(-player.z, -player.x);
+                } else {
+                    headings[i] += (random.nextDouble() - 0.5) * TURN_RATE;
+                }
+                step(player, headings[i], SPRINT_SPEED);
+            }
+        }
+
+        @Override
+        boolean firesAt(long tick) {
+            return tick % 600 == 0;
+        }
+
+        @Override
+        int aim(BenchPlayer[] players, Random random, double[] target) {
+            // Off-center, so a shot does not merge into the live impact left by the previous one
+            target[0] = (random.nextDouble() - 0.5) * CROWD_RADIUS;
+            target[1] = (random.nextDouble() - 0.5) * CROWD_RADIUS;
+            // Fired from somewhere in the crowd
+            return players[0].id;
+        }
+    },
+
+    /**
+     * Players wander over the whole world while someone fires on every tick.
+     */
+    CONSTANT_FIRE {
+        @Override
+        void place(BenchPlayer[] players, double[] headings, Random random, double soundRange) {
+            scatter(players, headings, random);
+        }
+
+        @Override
+        void move(BenchPlayer[] players, double[] headings, Random random, double soundRange) {
+            wander(players, headings, random);
+        }
+
+        @Override
+        boolean firesAt(long tick) {
+            return true;
+        }
+
+        @Override
+        int aim(BenchPlayer[] players, Random random, double[] target) {
+            return atRandomPlayer(players, random, target);
+        }
+    };
+
+    static final double WALK_SPEED = 0.216;   // Blocks per tick
+    static final double SPRINT_SPEED = 0.281; // Blocks per tick
+    // Largest change of heading per tick, in radians
+    private static final double TURN_RATE = 0.3;
+    // Converging players stop heading for the origin once this close to it
+    private static final double CROWD_RADIUS = 24.0;
+
+    abstract void place(BenchPlayer[] players, double[] headings, Random random, double soundRange);
+
+    /**
+     * Moves every player by one tick.
+     */
+    abstract void move(BenchPlayer[] players, double[] headings, Random random, double soundRange);
+
+    abstract boolean firesAt(long tick);
+
+    /**
+     * Picks who fires the next shot and where it lands.
+     *
+     * @param target Receives the X and Z coordinates
+     * @return The id of the shooter
+     */
+    abstract int aim(BenchPlayer[] players, Random random, double[] target);
+
+    private static void scatter(BenchPlayer[] players, double[] headings, Random random) {
+        for (int i = 0; i < players.length; i++) {
+            players[i].x = BenchPlayer.randomCoordinate(random);
+            players[i].z = BenchPlayer.randomCoordinate(random);
+            headings[i] = random.nextDouble() * Math.PI * 2.0;
+        }
+    }
+
+    private static void wander(BenchPlayer[] players, double[] headings, Random random) {
+        for (int i = 0; i < players.length; i++) {
+            BenchPlayer player = players[i];
+            headings[i] += (random.nextDouble() - 0.5) * TURN_RATE;
+            // Turn back towards the middle at the edge of the world
+            if (Math.abs(player.x) > BenchPlayer.WORLD_HALF_SIZE || Math.abs(player.z) > BenchPlayer.WORLD_HALF_SIZE) {
+                headings[i] = Math.atan2(-player.z, -player.x);
+            }
+            step(player, headings[i], random.nextInt(4) == 0 ? SPRINT_SPEED : WALK_SPEED);
+        }
+    }
+
+    private static int atRandomPlayer(BenchPlayer[] players, Random random, double[] target) {
+        BenchPlayer shooter = players[random.nextInt(players.length)];
+        target[0] = shooter.x;
+        target[1] = shooter.z;
+        return shooter.id;
+    }
+
+    private static void step(BenchPlayer player, double heading, double speed) {
+        player.x += Math.cos(heading) * speed;
+        player.z += Math.sin(heading) * speed;
+    }
+}
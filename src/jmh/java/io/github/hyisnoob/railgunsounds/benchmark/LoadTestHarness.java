@@ -0,0 +1,253 @@
+package io.github.hyisnoob.railgunsounds.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import io.github.hyisnoob.railgunsounds.config.ServerConfig;
+import io.github.hyisnoob.railgunsounds.impact.Impact;
+import io.github.hyisnoob.railgunsounds.impact.ImpactRegistry;
+import io.github.hyisnoob.railgunsounds.impact.ShotDispatcher;
+import io.github.hyisnoob.railgunsounds.impact.SoundTier;
+import io.github.hyisnoob.railgunsounds.listener.AreaCheckScheduler;
+import io.github.hyisnoob.railgunsounds.listener.PlayerAreaListener;
+import io.github.hyisnoob.railgunsounds.listener.PlayerAreaListener.AreaCheckResult;
+import io.github.hyisnoob.railgunsounds.metrics.SoundMetrics;
+import io.github.hyisnoob.railgunsounds.network.SoundPacketQueue;
+import io.github.hyisnoob.railgunsounds.registry.SoundsRegistry;
+import io.github.hyisnoob.railgunsounds.spatial.PlayerPositionSnapshot;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.world.World;
+
+/**
+ * Headless load test: runs the server-side tick work of the mod (impact expiry, the {@link ShotDispatcher},
+ * the re-check sweep of {@link AreaCheckScheduler} and the {@link SoundPacketQueue} flush) against thousands
+ * of simulated players following a {@link LoadScenario}, without a Minecraft server or network. The mod's classes
+ * are driven through their id-based entry points; only applying a shot's audience is mirrored here, since the
+ * mod does that on player entities. Reports tick-time percentiles, the encoded sound packets per tick and heap growth.
+ *
+ * <p>Usage: {@code LoadTestHarness [random_walk|converge|constant_fire] [players] [ticks] [seed]},
+ * or {@code ./gradlew loadTest -PloadTestArgs="converge 5000"}.
+ */
+public class LoadTestHarness {
+    private static final long TICK_MS = 50L;
+    // Ticks run before measuring starts, so the JIT has compiled the hot paths
+    private static final int WARMUP_TICKS = 400;
+    private static final int HEAP_SAMPLE_INTERVAL = 20;
+
+    private final LoadScenario scenario;
+    private final BenchPlayer[] players;
+    private final double[] headings;
+    private final Random random;
+    private final double soundRange = ServerConfig.INSTANCE.getSoundRange();
+    private final double[] target = new double[2];
+
+    // Positions handed to the dispatcher, as the server would read them from the player entities
+    private final int[] ids;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+
+    // Batch packets flushed in the current tick
+    private int packets;
+    private long packetBytes;
+    private long currentTimeMs;
+
+    LoadTestHarness(LoadScenario scenario, int playerCount, long seed) {
+        this.scenario = scenario;
+        this.players = BenchPlayer.scatter(playerCount, seed);
+        this.headings = new double[playerCount];
+        this.random = new Random(seed);
+        this.ids = new int[playerCount];
+        this.xs = new double[playerCount];
+        this.ys = new double[playerCount];
+        this.zs = new double[playerCount];
+        scenario.place(players, headings, random, soundRange);
+
+        // Every simulated client is up to date, so sounds are sent as table indices
+        for (BenchPlayer player : players) {
+            SoundPacketQueue.encodeSoundIds(player.id).release();
+        }
+    }
+
+    public static void main(String[] args) {
+        LoadScenario scenario = args.length > 0 ? LoadScenario.valueOf(args[0].toUpperCase(Locale.ROOT)) : LoadScenario.RANDOM_WALK;
+        int playerCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 6000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+
+        System.out.printf(Locale.ROOT, "Scenario %s: %d players, %d ticks (+%d warm-up), seed %d, sound range %.0f%n",
+                scenario.name().toLowerCase(Locale.ROOT), playerCount, ticks, WARMUP_TICKS, seed,
+                ServerConfig.INSTANCE.getSoundRange());
+        new LoadTestHarness(scenario, playerCount, seed).run(ticks);
+    }
+
+    void run(int measuredTicks) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long startMs = System.currentTimeMillis();
+
+        for (int tick = 0; tick < WARMUP_TICKS; tick++) {
+            runTick(tick, startMs);
+        }
+
+        System.gc();
+        long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+        long peakHeap = baselineHeap;
+        long[] tickNanos = new long[measuredTicks];
+        int[] packetsPerTick = new int[measuredTicks];
+        long totalBytes = 0;
+        long commandsBefore = SoundMetrics.PLAY_COMMANDS_SENT.sum() + SoundMetrics.STOP_COMMANDS_SENT.sum();
+        int peakImpacts = 0;
+
+        for (int i = 0; i < measuredTicks; i++) {
+            tickNanos[i] = runTick(WARMUP_TICKS + i, startMs);
+            packetsPerTick[i] = packets;
+            totalBytes += packetBytes;
+            peakImpacts = Math.max(peakImpacts, ImpactRegistry.getActiveCount());
+
+            if (i % HEAP_SAMPLE_INTERVAL == 0) {
+                peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+            }
+        }
+
+        long totalCommands = SoundMetrics.PLAY_COMMANDS_SENT.sum() + SoundMetrics.STOP_COMMANDS_SENT.sum() - commandsBefore;
+        System.gc();
+        long retainedHeap = memory.getHeapMemoryUsage().getUsed();
+        report(tickNanos, packetsPerTick, totalCommands, totalBytes, peakImpacts, baselineHeap, peakHeap, retainedHeap);
+    }
+
+    /**
+     * Moves the players, then runs and times the work the mod does at the end of a server tick.
+     *
+     * @return The time spent in the mod's code, in nanoseconds
+     */
+    private long runTick(long tick, long startMs) {
+        scenario.move(players, headings, random, soundRange);
+        packets = 0;
+        packetBytes = 0;
+        currentTimeMs = startMs + tick * TICK_MS;
+
+        boolean fires = scenario.firesAt(tick);
+        if (fires) {
+            for (int i = 0; i < players.length; i++) {
+                ids[i] = players[i].id;
+                xs[i] = players[i].x;
+                ys[i] = players[i].y;
+                zs[i] = players[i].z;
+            }
+        }
+
+        long start = System.nanoTime();
+        ImpactRegistry.expireImpacts(currentTimeMs, PlayerAreaListener::onImpactExpired);
+
+        if (fires) {
+            int shooterId = scenario.aim(players, random, target);
+            ShotDispatcher.submit(new ShotDispatcher.Shot(shooterId, World.OVERWORLD, SoundsRegistry.RAILGUN_SHOOT_ID,
+                    SoundsRegistry.RAILGUN_SHOOT, 1.0f, 1.0f, target[0], 64.0, target[1], soundRange, currentTimeMs));
+            // The server computes audiences on workers; here they are computed in line, so the tick pays for them
+            PlayerPositionSnapshot snapshot = PlayerPositionSnapshot.ofIds(World.OVERWORLD, ids, xs, ys, zs, players.length);
+            ShotDispatcher.dispatch(snapshot, this::applyShot);
+        }
+
+        AreaCheckScheduler.tick(tick, playerId -> {
+            BenchPlayer player = players[playerId];
+            PlayerAreaListener.checkPlayerPosition(playerId, player.x, player.z, this::onAreaChange);
+        });
+
+        SoundPacketQueue.flush(this::onBatch);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Same steps as the mod applies to a shot's audience: register the impact, check every player in it
+     * and queue the sound for the players in range, or a stop for the ones who left.
+     */
+    private void applyShot(ShotDispatcher.Shot shot, ShotDispatcher.Audience audience) {
+        ServerConfig.Snapshot config = ServerConfig.INSTANCE.getSnapshot();
+        double rangeSquared = shot.range() * shot.range();
+        Impact impact = ImpactRegistry.register(shot.worldKey(), shot.x(), shot.y(), shot.z(), shot.fireTimestamp());
+
+        for (int i = 0, size = audience.size(); i < size; i++) {
+            int playerId = audience.getPlayerId(i);
+            double distance = audience.getHorizontalDistance(i);
+            int result = PlayerAreaListener.handlePlayerAreaCheck(playerId, audience.getX(i), audience.getZ(i), impact);
+
+            if (audience.getDistanceSquared(i) <= rangeSquared) {
+                if (AreaCheckResult.isInside(result)) {
+                    SoundPacketQueue.queuePlay(playerId, impact.id, SoundTier.forDistance(distance, config).soundId,
+                            shot.volume(), shot.pitch(), distance);
+                }
+                if (!AreaCheckResult.hasEntered(result)) {
+                    onAreaChange(playerId, result, impact);
+                }
+            } else if (AreaCheckResult.hasLeft(result)) {
+                onAreaChange(playerId, result, impact);
+            }
+        }
+    }
+
+    private void onAreaChange(int playerId, int result, Impact impact) {
+        if (AreaCheckResult.hasEntered(result)) {
+            BenchPlayer player = players[playerId];
+            double dx = player.x - impact.x;
+            double dz = player.z - impact.z;
+            double distance = Math.sqrt(dx * dx + dz * dz);
+            SoundTier tier = SoundTier.forDistance(distance, ServerConfig.INSTANCE.getSnapshot());
+            long elapsedMs = currentTimeMs - impact.getFireTimestamp();
+            if (elapsedMs < tier.durationMs) {
+                SoundPacketQueue.queuePlayAt(playerId, impact.id, tier.soundId, 1.0f, 1.0f, distance, (int) elapsedMs);
+            }
+        } else if (AreaCheckResult.hasLeft(result)) {
+            SoundPacketQueue.queueStop(playerId, impact.id, SoundsRegistry.RAILGUN_SHOOT_ID);
+        }
+    }
+
+    private void onBatch(int playerId, PacketByteBuf packet) {
+        packets++;
+        packetBytes += packet.readableBytes();
+        packet.release();
+    }
+
+    private static void report(long[] tickNanos, int[] packetsPerTick, long totalCommands, long totalBytes, int peakImpacts,
+                               long baselineHeap, long peakHeap, long retainedHeap) {
+        int ticks = tickNanos.length;
+        if (ticks == 0) {
+            return;
+        }
+
+        long[] sortedNanos = tickNanos.clone();
+        Arrays.sort(sortedNanos);
+        System.out.printf(Locale.ROOT, "Tick time (us): p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                percentile(sortedNanos, 0.50) / 1000.0, percentile(sortedNanos, 0.90) / 1000.0,
+                percentile(sortedNanos, 0.99) / 1000.0, percentile(sortedNanos, 0.999) / 1000.0,
+                sortedNanos[ticks - 1] / 1000.0);
+
+        long totalPackets = 0;
+        long[] sortedPackets = new long[ticks];
+        for (int i = 0; i < ticks; i++) {
+            totalPackets += packetsPerTick[i];
+            sortedPackets[i] = packetsPerTick[i];
+        }
+        Arrays.sort(sortedPackets);
+        System.out.printf(Locale.ROOT, "Packets per tick: mean %.2f, p99 %d, max %d (%d commands in %d packets, %.1f KB)%n",
+                (double) totalPackets / ticks, percentile(sortedPackets, 0.99), sortedPackets[ticks - 1],
+                totalCommands, totalPackets, totalBytes / 1024.0);
+
+        System.out.printf(Locale.ROOT, "Area state: %d players tracked, %d live impacts (peak %d)%n",
+                PlayerAreaListener.getTrackedPlayerCount(), ImpactRegistry.getActiveCount(), peakImpacts);
+        System.out.printf(Locale.ROOT, "Heap (MB): %.1f after warm-up, peak %.1f, %.1f after run (%+.1f)%n",
+                toMegabytes(baselineHeap), toMegabytes(peakHeap), toMegabytes(retainedHeap),
+                toMegabytes(retainedHeap - baselineHeap));
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double toMegabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
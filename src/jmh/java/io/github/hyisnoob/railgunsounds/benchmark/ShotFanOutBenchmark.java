@@ -0,0 +1,140 @@
+package io.github.hyisnoob.railgunsounds.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.hyisnoob.railgunsounds.config.ServerConfig;
+import io.github.hyisnoob.railgunsounds.impact.Impact;
+import io.github.hyisnoob.railgunsounds.impact.ImpactRegistry;
+import io.github.hyisnoob.railgunsounds.impact.ShotDispatcher;
+import io.github.hyisnoob.railgunsounds.listener.PlayerAreaListener;
+import io.github.hyisnoob.railgunsounds.listener.PlayerAreaListener.AreaCheckResult;
+import io.github.hyisnoob.railgunsounds.registry.SoundsRegistry;
+import io.github.hyisnoob.railgunsounds.spatial.PlayerPositionSnapshot;
+import net.minecraft.world.World;
+
+/**
+ * Measures the per-player loop of a single shot, mirroring how a shot is applied:
+ * a distance check and a state-tracking area check for each candidate player.
+ * Compares scanning every player with the {@link ShotDispatcher} path the server takes: a
+ * {@link PlayerPositionSnapshot} of the players, queried by {@link ShotDispatcher#dispatch(PlayerPositionSnapshot,
+ * ShotDispatcher.AudienceListener)} for each shot's audience.
+ * Each invocation fires at the next of the live impacts in turn.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShotFanOutBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int players;
+
+    @Param({"1", "10", "100"})
+    public int impacts;
+
+    private BenchPlayer[] standIns;
+    private PlayerPositionSnapshot snapshot;
+    private Impact[] liveImpacts;
+    private int nextImpact;
+    private int dispatchedAudience;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        standIns = BenchPlayer.scatter(players, 42L);
+
+        int[] ids = new int[players];
+        double[] xs = new double[players];
+        double[] ys = new double[players];
+        double[] zs = new double[players];
+        for (int i = 0; i < players; i++) {
+            ids[i] = standIns[i].id;
+            xs[i] = standIns[i].x;
+            ys[i] = standIns[i].y;
+            zs[i] = standIns[i].z;
+        }
+        snapshot = PlayerPositionSnapshot.ofIds(World.OVERWORLD, ids, xs, ys, zs, players);
+
+        Random random = new Random(7L);
+        long fireTimestamp = System.currentTimeMillis();
+        liveImpacts = new Impact[impacts];
+        for (int i = 0; i < impacts; i++) {
+            liveImpacts[i] = ImpactRegistry.register(World.OVERWORLD,
+                    BenchPlayer.randomCoordinate(random), 64.0, BenchPlayer.randomCoordinate(random), fireTimestamp);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (BenchPlayer player : standIns) {
+            PlayerAreaListener.clearPlayerState(player.id);
+        }
+        ImpactRegistry.expireImpacts(Long.MAX_VALUE, PlayerAreaListener::onImpactExpired);
+        ShotDispatcher.clear();
+    }
+
+    @Benchmark
+    public int fullScan() {
+        Impact impact = nextImpact();
+        double rangeSquared = rangeSquared();
+
+        int audience = 0;
+        for (BenchPlayer player : standIns) {
+            audience += checkPlayer(player.id, player.x, player.y, player.z, impact, rangeSquared);
+        }
+        return audience;
+    }
+
+    @Benchmark
+    public int dispatch() {
+        Impact impact = nextImpact();
+        double rangeSquared = rangeSquared();
+
+        ShotDispatcher.submit(new ShotDispatcher.Shot(0, World.OVERWORLD, SoundsRegistry.RAILGUN_SHOOT_ID,
+                SoundsRegistry.RAILGUN_SHOOT, 1.0f, 1.0f, impact.x, impact.y, impact.z,
+                ServerConfig.INSTANCE.getSoundRange(), impact.getFireTimestamp()));
+        dispatchedAudience = 0;
+        ShotDispatcher.dispatch(snapshot, (shot, audience) -> {
+            for (int i = 0, size = audience.size(); i < size; i++) {
+                dispatchedAudience += checkPlayer(audience.getPlayerId(i), audience.getX(i), audience.getY(i),
+                        audience.getZ(i), impact, rangeSquared);
+            }
+        });
+        return dispatchedAudience;
+    }
+
+    private static int checkPlayer(int playerId, double x, double y, double z, Impact impact, double rangeSquared) {
+        double dx = x - impact.x;
+        double dy = y - impact.y;
+        double dz = z - impact.z;
+
+        int result = PlayerAreaListener.handlePlayerAreaCheck(playerId, x, z, impact);
+        return dx * dx + dy * dy + dz * dz <= rangeSquared && AreaCheckResult.isInside(result) ? 1 : 0;
+    }
+
+    private Impact nextImpact() {
+        Impact impact = liveImpacts[nextImpact];
+        nextImpact = (nextImpact + 1) % liveImpacts.length;
+        return impact;
+    }
+
+    private static double rangeSquared() {
+        double range = ServerConfig.INSTANCE.getSoundRange();
+        return range * range;
+    }
+}
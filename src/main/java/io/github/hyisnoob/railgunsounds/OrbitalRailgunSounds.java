@@ -5,32 +5,48 @@ import org.slf4j.LoggerFactory;
 
 import io.github.hyisnoob.railgunsounds.registry.SoundsRegistry;
 import io.github.hyisnoob.railgunsounds.registry.CommandRegistry;
+import io.github.hyisnoob.railgunsounds.logger.SoundEventType;
 import io.github.hyisnoob.railgunsounds.logger.SoundLogger;
+import io.github.hyisnoob.railgunsounds.metrics.SoundMetrics;
 import io.github.hyisnoob.railgunsounds.config.ServerConfig;
+import io.github.hyisnoob.railgunsounds.impact.Impact;
+import io.github.hyisnoob.railgunsounds.impact.ImpactJournal;
+import io.github.hyisnoob.railgunsounds.impact.ImpactRegistry;
+import io.github.hyisnoob.railgunsounds.impact.RailgunShotDetector;
+import io.github.hyisnoob.railgunsounds.impact.ShotDispatcher;
+import io.github.hyisnoob.railgunsounds.impact.SoundTier;
+import io.github.hyisnoob.railgunsounds.listener.AreaCheckScheduler;
 import io.github.hyisnoob.railgunsounds.listener.PlayerAreaListener;
-import io.netty.buffer.Unpooled;
+import io.github.hyisnoob.railgunsounds.listener.PlayerAreaListener.AreaCheckResult;
+import io.github.hyisnoob.railgunsounds.network.PlayerSoundPreferences;
+import io.github.hyisnoob.railgunsounds.network.SoundPacketQueue;
+import io.github.hyisnoob.railgunsounds.network.TokenBucketRateLimiter;
+import io.github.hyisnoob.railgunsounds.spatial.SurfaceHeightCache;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.S2CPlayChannelEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
-import net.minecraft.network.PacketByteBuf;
-import net.minecraft.registry.Registries;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.sound.SoundCategory;
-import net.minecraft.sound.SoundEvent;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 
 public class OrbitalRailgunSounds implements ModInitializer {
     public static final String MOD_ID = "orbital_railgun_sounds";
     public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
-    public static final Identifier PLAY_SOUND_PACKET_ID = new Identifier(MOD_ID, "play_sound");
     public static final Identifier SHOOT_PACKET_ID = new Identifier("orbital_railgun", "shoot_packet");
-    public static final Identifier STOP_AREA_SOUND_PACKET_ID = new Identifier(MOD_ID, "stop_area_sound");
+    public static final Identifier SOUND_BATCH_PACKET_ID = new Identifier(MOD_ID, "sound_batch");
+    public static final Identifier SOUND_IDS_PACKET_ID = new Identifier(MOD_ID, "sound_ids");
+    public static final Identifier PREFERENCES_PACKET_ID = new Identifier(MOD_ID, "sound_preferences");
     
     // Duration of the railgun shoot sound effect in milliseconds (from railgun-shoot.ogg)
     public static final long RAILGUN_SOUND_DURATION_MS = 52992L; // ~53 seconds
 
+    // Clients send area checks at most every few ticks, so allow small bursts and ~4 per second sustained
+    private static final TokenBucketRateLimiter AREA_CHECK_LIMITER = new TokenBucketRateLimiter(10, 4);
+
     @Override
     public void onInitialize() {
         ServerConfig.INSTANCE.loadConfig();
@@ -43,208 +59,244 @@ public class OrbitalRailgunSounds implements ModInitializer {
         LOGGER.info("Sound range: {}", ServerConfig.INSTANCE.getSoundRange());
         LOGGER.info("=================================================");
 
-        PlayerAreaListener.setAreaChangeCallback(event -> handleAreaStateChange(event.player(), event.result(), event.laserX(), event.laserZ()));
+        // Config writes are debounced on a background thread, so write out the last change before exiting
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            ServerConfig.INSTANCE.flush();
+            ImpactJournal.close();
+            SoundLogger.stopDrainer();
+        });
+        // State is static, so an integrated server opening another world must not see the previous world's
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            RailgunShotDetector.clear();
+            ShotDispatcher.clear();
+            ImpactRegistry.clear();
+            PlayerAreaListener.clearAllPlayerStates();
+            SoundPacketQueue.clearAll();
+            PlayerSoundPreferences.clear();
+            SurfaceHeightCache.clear();
+            AREA_CHECK_LIMITER.clear();
+        });
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            SoundLogger.startDrainer();
+            // Impacts still playing when the server went down keep their timing; players pick them up on their next area check
+            ImpactJournal.restore(server);
+        });
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> SoundLogger.rememberPlayer(handler.getPlayer()));
+
+        PlayerAreaListener.setAreaChangeCallback(OrbitalRailgunSounds::handleAreaStateChange);
+        ShotDispatcher.setAudienceCallback(OrbitalRailgunSounds::applyShot);
 
         ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
-            PlayerAreaListener.clearPlayerState(handler.getPlayer().getUuid());
-            if (ServerConfig.INSTANCE.isDebugMode()) {
-                LOGGER.info("Cleared area state for disconnected player: {}", 
-                    handler.getPlayer().getName().getString());
+            PlayerAreaListener.clearPlayerState(handler.getPlayer().getId());
+            AREA_CHECK_LIMITER.remove(handler.getPlayer().getUuid());
+            SoundPacketQueue.clear(handler.getPlayer().getId());
+            SoundPacketQueue.forget(handler.getPlayer().getId());
+            RailgunShotDetector.forget(handler.getPlayer().getId());
+            PlayerSoundPreferences.forget(handler.getPlayer().getId());
+            SoundLogger.log(SoundEventType.CLEARED, handler.getPlayer().getId(), -1, null,
+                handler.getPlayer().getX(), handler.getPlayer().getZ(), 0.0);
+            SoundLogger.forgetPlayer(handler.getPlayer().getId());
+        });
+
+        // Sound commands refer to sounds by index once the client has the table
+        S2CPlayChannelEvents.REGISTER.register((handler, sender, server, channels) -> {
+            if (channels.contains(SOUND_IDS_PACKET_ID)) {
+                server.execute(() -> {
+                    if (!handler.getPlayer().isDisconnected()) {
+                        SoundPacketQueue.sendSoundIds(handler.getPlayer());
+                    }
+                });
             }
         });
 
-        ServerPlayNetworking.registerGlobalReceiver(PLAY_SOUND_PACKET_ID,
+        // Respawning replaces the player entity (keeping its id)
+        ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) ->
+            PlayerAreaListener.onPlayerRespawned(newPlayer));
+
+        // Shots are also detected on the server when the railgun goes on cooldown, see ServerItemCooldownManagerMixin
+        // and the shoot packet only supplies the target, see RailgunShotDetector
+        boolean shootPacketRegistered = ServerPlayNetworking.registerGlobalReceiver(SHOOT_PACKET_ID,
                 (server, player, handler, buf, responseSender) -> {
-                    Identifier soundId = buf.readIdentifier();
-                    SoundEvent sound = Registries.SOUND_EVENT.get(soundId);
                     BlockPos blockPos = buf.readBlockPos();
-                    float volumeShoot = buf.readFloat();
-                    float pitchShoot = buf.readFloat();
-                    
-                    long fireTimestamp = System.currentTimeMillis();
+                    long receivedAt = System.currentTimeMillis();
+
+                    server.execute(() -> RailgunShotDetector.onShootPacket(player, blockPos, receivedAt));
+                });
+        if (!shootPacketRegistered) {
+            LOGGER.warn("Could not register the railgun shoot packet receiver, railgun sounds will play at the shooter's position");
+            RailgunShotDetector.setShootPacketAvailable(false);
+        }
+
+        boolean areaCheckRegistered = ServerPlayNetworking.registerGlobalReceiver(SoundsRegistry.AREA_CHECK_PACKET_ID,
+                (server, player, handler, buf, responseSender) -> {
+                    SoundMetrics.AREA_CHECKS_RECEIVED.increment();
+                    // Drop excess packets here so they never reach the server thread
+                    if (!AREA_CHECK_LIMITER.tryAcquire(player.getUuid())) {
+                        SoundMetrics.AREA_CHECKS_DROPPED.increment();
+                        return;
+                    }
 
                     server.execute(() -> {
-                        if (sound == null) {
-                            OrbitalRailgunSounds.LOGGER.warn("Received unknown sound id: {}", soundId.toString());
+                        if (PlayerSoundPreferences.isShotSoundMuted(player.getId())) {
                             return;
                         }
+                        long taskStart = System.nanoTime();
+                        PlayerAreaListener.requestRecheck(player);
+                        SoundMetrics.AREA_CHECK_TASK_NANOS.record(System.nanoTime() - taskStart);
+                    });
+                });
+        if (!areaCheckRegistered) {
+            LOGGER.warn("Area check packet {} already has a receiver, client movement hints will be ignored", 
+                SoundsRegistry.AREA_CHECK_PACKET_ID);
+        }
 
-                        double range = ServerConfig.INSTANCE.getSoundRange();
-                        double rangeSquared = range * range;
-                        double laserX = blockPos.getX() + 0.5;
-                        double laserZ = blockPos.getZ() + 0.5;
+        ServerPlayNetworking.registerGlobalReceiver(PREFERENCES_PACKET_ID, (server, player, handler, buf, responseSender) -> {
+            byte flags = buf.readByte();
+            server.execute(() -> applyPreferences(player, flags));
+        });
 
-                        if (ServerConfig.INSTANCE.isDebugMode()) {
-                            LOGGER.info("Playing sound {} at BlockPos: {} with range: {} at time {}", 
-                                soundId, blockPos, range, fireTimestamp);
-                        }
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            long tickStart = System.nanoTime();
+            ImpactRegistry.expireImpacts(System.currentTimeMillis(), PlayerAreaListener::onImpactExpired);
 
-                        // Check all players and track state changes
-                        server.getPlayerManager().getPlayerList().forEach(nearbyPlayer -> {
-                            double distanceSquared = nearbyPlayer.squaredDistanceTo(
-                                    blockPos.getX() + 0.5,
-                                    blockPos.getY() + 0.5,
-                                    blockPos.getZ() + 0.5
-                            );
-
-                            PlayerAreaListener.AreaCheckResult result =
-                                PlayerAreaListener.handlePlayerAreaCheck(nearbyPlayer, laserX, laserZ, fireTimestamp);
-                            if (distanceSquared <= rangeSquared) {
-                                // Use PlayerAreaListener to track state changes with timestamp
-
-                                if (result.isInside) {
-                                    // Only play sound if player is in range
-                                    nearbyPlayer.playSound(
-                                            sound,
-                                            SoundCategory.PLAYERS,
-                                            volumeShoot,
-                                            pitchShoot
-                                    );
-                                    SoundLogger.logSoundEvent(soundId.toString(), blockPos, range);
-                                    
-                                    if (ServerConfig.INSTANCE.isDebugMode()) {
-                                        LOGGER.info("Playing sound to player {} (distance: {})", 
-                                            nearbyPlayer.getName().getString(), 
-                                            Math.sqrt(distanceSquared));
-                                    }
-                                }
-                                
-                                // Handle state changes (enter/leave detection)
-                                handleAreaStateChange(nearbyPlayer, result, laserX, laserZ);
-                            } else {
-                                // Player is outside range - check if they left the zone
-
-                                if (result.hasLeft()) {
-                                    // Player just left the range
-                                    handleAreaStateChange(nearbyPlayer, result, laserX, laserZ);
-                                }
-                            }
-                        });
-                    });
-                });
+            // Shots received this tick share one position snapshot
+            RailgunShotDetector.tick(System.currentTimeMillis());
+            ShotDispatcher.dispatch(server);
+
+            // Only players holding a live impact state are visited, and only when they are due
+            long sweepStart = System.nanoTime();
+            AreaCheckScheduler.tick(server.getTicks(), PlayerAreaListener::checkPlayerPosition);
+            SoundMetrics.RECHECK_SWEEP_NANOS.record(System.nanoTime() - sweepStart);
 
-        ServerPlayNetworking.registerGlobalReceiver(SHOOT_PACKET_ID, (server, player, handler, buf, responseSender) -> {
-            BlockPos blockPos = buf.readBlockPos();
+            // Everything queued during this tick goes out as one packet per player
+            SoundPacketQueue.flush(server);
 
-            if (ServerConfig.INSTANCE.isDebugMode()) {
-                LOGGER.info("========================================");
-                LOGGER.info("SHOOT_PACKET received from player: {}", player.getName().getString());
-                LOGGER.info("Impact location: {}", blockPos);
+            if (server.getTicks() % 20 == 0) {
+                SoundMetrics.sampleGauges(PlayerAreaListener.getTrackedPlayerCount(), ImpactRegistry.getActiveCount());
             }
+            SoundMetrics.END_TICK_NANOS.record(System.nanoTime() - tickStart);
+        });
 
-            server.execute(() -> {
-                double laserX = blockPos.getX() + 0.5;
-                double laserZ = blockPos.getZ() + 0.5;
-                
-                int totalPlayers = server.getPlayerManager().getPlayerList().size();
-                if (ServerConfig.INSTANCE.isDebugMode()) {
-                    LOGGER.info("Checking {} players on server for range", totalPlayers);
-                }
+        SoundMetrics.setFileInterval(ServerConfig.INSTANCE.getMetricsIntervalSeconds());
+    }
 
-                server.getPlayerManager().getPlayerList().forEach(serverPlayer -> {
-                    PlayerAreaListener.AreaCheckResult result = 
-                        PlayerAreaListener.handlePlayerAreaCheck(serverPlayer, laserX, laserZ);
+    /**
+     * Applies a shot on the server thread once its audience has been computed:
+     * registers the impact, updates the players' area state and queues their sounds.
+     */
+    private static void applyShot(ShotDispatcher.Shot shot, ShotDispatcher.Audience audience) {
+        long taskStart = System.nanoTime();
+        ServerConfig.Snapshot config = ServerConfig.INSTANCE.getSnapshot();
+        double rangeSquared = shot.range() * shot.range();
+        Impact impact = ImpactRegistry.register(shot.worldKey(), shot.x(), shot.y(), shot.z(), shot.fireTimestamp());
+        impact.attachAttenuationMap(audience.getAttenuationMap());
 
-                    handleAreaStateChange(serverPlayer, result, laserX, laserZ);
-                });
-                
-                if (ServerConfig.INSTANCE.isDebugMode()) {
-                    LOGGER.info("========================================");
+        SoundLogger.log(SoundEventType.SHOT, shot.shooterId(), impact.id, shot.sound(), shot.x(), shot.z(), shot.range());
+
+        for (int i = 0, size = audience.size(); i < size; i++) {
+            ServerPlayerEntity nearbyPlayer = audience.getPlayer(i);
+            // The player may have muted the railgun after the audience was captured
+            if (nearbyPlayer.isRemoved() || PlayerSoundPreferences.isShotSoundMuted(nearbyPlayer.getId())) {
+                continue;
+            }
+
+            int result = PlayerAreaListener.handlePlayerAreaCheck(nearbyPlayer, audience.getX(i), audience.getY(i),
+                    audience.getZ(i), audience.getHorizontalDistance(i), impact);
+
+            if (audience.getDistanceSquared(i) <= rangeSquared) {
+                if (AreaCheckResult.isInside(result)) {
+                    // Only play sound if player is in range; distant listeners get a shorter variant
+                    Identifier soundId = SoundsRegistry.RAILGUN_SHOOT_ID.equals(shot.soundId())
+                            ? SoundTier.forDistance(audience.getHorizontalDistance(i), config).soundId
+                            : shot.soundId();
+                    // Terrain between the impact and the player muffles the sound
+                    float volume = shot.volume() * impact.getAttenuation(audience.getX(i), audience.getY(i), audience.getZ(i));
+                    SoundPacketQueue.queuePlay(nearbyPlayer, impact.id, soundId, volume, shot.pitch(),
+                            audience.getHorizontalDistance(i));
+                    SoundLogger.log(SoundEventType.PLAY, nearbyPlayer.getId(), impact.id, shot.sound(),
+                        shot.x(), shot.z(), audience.getDistanceSquared(i));
                 }
-            });
-        });
 
-        ServerTickEvents.END_SERVER_TICK.register(server -> {
-            if (server.getTicks() % 20 == 0) {
-                server.getPlayerManager().getPlayerList().forEach(PlayerAreaListener::checkPlayerPosition);
+                // Handle state changes (enter/leave detection); entering is covered by the sound above
+                if (!AreaCheckResult.hasEntered(result)) {
+                    handleAreaStateChange(nearbyPlayer, result, impact);
+                }
+            } else if (AreaCheckResult.hasLeft(result)) {
+                // Player just left the range
+                handleAreaStateChange(nearbyPlayer, result, impact);
             }
-        });
+        }
+
+        SoundMetrics.PLAYERS_SCANNED.add(audience.size());
+        SoundMetrics.PLAYERS_PER_SHOT.record(audience.size());
+        SoundMetrics.APPLY_SHOT_NANOS.record(System.nanoTime() - taskStart);
+    }
+
+    /**
+     * Applies the sound preferences synced by a client. Muting drops the player's area state, so they are
+     * no longer re-checked (the client stops its own sounds); unmuting picks up the impacts they are in range of.
+     */
+    private static void applyPreferences(ServerPlayerEntity player, byte flags) {
+        boolean wasMuted = PlayerSoundPreferences.isShotSoundMuted(player.getId());
+        PlayerSoundPreferences.update(player, flags);
+        boolean muted = PlayerSoundPreferences.isShotSoundMuted(player.getId());
+
+        if (muted && !wasMuted) {
+            PlayerAreaListener.clearPlayerState(player.getId());
+            SoundPacketQueue.clear(player.getId());
+        } else if (!muted && wasMuted && !player.isRemoved()) {
+            PlayerAreaListener.requestRecheck(player);
+        }
     }
 
     /**
      * Handles area state changes for a player (entering/leaving the sound range).
      * Plays railgun sounds to players who are in range when the railgun fires.
      */
-    private static void handleAreaStateChange(ServerPlayerEntity player, 
-                                             PlayerAreaListener.AreaCheckResult result, 
-                                             double laserX, double laserZ) {
-        if (result.hasEntered()) {
+    private static void handleAreaStateChange(ServerPlayerEntity player, int result, Impact impact) {
+        if (AreaCheckResult.hasEntered(result)) {
             // Player just entered the sound range
             long currentTime = System.currentTimeMillis();
-            long elapsedMs = currentTime - result.fireTimestamp;
-            
-            if (ServerConfig.INSTANCE.isDebugMode()) {
-                LOGGER.info("Player {} entered sound range at ({}, {}) - elapsed: {}ms, duration: {}ms", 
-                    player.getName().getString(), laserX, laserZ, elapsedMs, RAILGUN_SOUND_DURATION_MS);
-            }
+            long elapsedMs = currentTime - impact.getFireTimestamp();
+            double dx = player.getX() - impact.x;
+            double dz = player.getZ() - impact.z;
+            double distance = Math.sqrt(dx * dx + dz * dz);
+            SoundTier tier = SoundTier.forDistance(distance, ServerConfig.INSTANCE.getSnapshot());
             
-            // Only play sound if it hasn't finished yet
-            if (elapsedMs < RAILGUN_SOUND_DURATION_MS) {
+            // Only play sound if this tier's sound hasn't finished yet
+            if (elapsedMs < tier.durationMs) {
+                SoundLogger.log(SoundEventType.ENTER, player.getId(), impact.id, SoundsRegistry.RAILGUN_SHOOT, impact.x, impact.z, elapsedMs);
                 // Play the railgun shoot sound to the player who just entered range
-                playRailgunSoundToPlayer(player, laserX, laserZ, elapsedMs);
+                playRailgunSoundToPlayer(player, impact, tier, distance, elapsedMs);
             } else {
-                if (ServerConfig.INSTANCE.isDebugMode()) {
-                    LOGGER.info("Sound already ended ({}ms > {}ms) - not playing for player {}", 
-                        elapsedMs, RAILGUN_SOUND_DURATION_MS, player.getName().getString());
-                }
+                SoundLogger.log(SoundEventType.ENDED, player.getId(), impact.id, SoundsRegistry.RAILGUN_SHOOT, impact.x, impact.z, elapsedMs);
             }
             
-        } else if (result.hasLeft()) {
+        } else if (AreaCheckResult.hasLeft(result)) {
             // Player just left the sound range - stop any playing area sounds
-            if (ServerConfig.INSTANCE.isDebugMode()) {
-                LOGGER.info("Player {} left sound range at ({}, {}) - stopping sounds", 
-                    player.getName().getString(), laserX, laserZ);
-            }
+            SoundLogger.log(SoundEventType.LEAVE, player.getId(), impact.id, null, impact.x, impact.z, 0.0);
             
-            // Send packet to client to stop area-based sounds
-            stopAreaSoundsForPlayer(player);
-            
-        } else if (result.isInside) {
-            // Player is still inside the range (already heard the sound)
-            if (ServerConfig.INSTANCE.isDebugMode()) {
-                LOGGER.debug("Player {} remains in sound range at ({}, {})", 
-                    player.getName().getString(), laserX, laserZ);
-            }
+            // Send packet to client to stop this impact's sound; other impacts keep playing
+            stopAreaSoundsForPlayer(player, impact);
         }
     }
     
     /**
-     * Plays the railgun shoot sound to a specific player at the laser impact location.
+     * Plays the railgun shoot sound (or the variant for the player's distance tier) to a specific player.
      * @param elapsedMs How many milliseconds have elapsed since the sound started (for syncing)
      */
-    private static void playRailgunSoundToPlayer(ServerPlayerEntity player, double laserX, double laserZ, long elapsedMs) {
-        // Use the railgun shoot sound from the registry
-        SoundEvent shootSound = SoundsRegistry.RAILGUN_SHOOT;
-        
-        if (shootSound != null) {
-            // Play the sound at the laser impact location
-            player.playSound(
-                shootSound,
-                SoundCategory.PLAYERS,
-                1.0f,  // volume
-                1.0f   // pitch
-            );
-            
-            if (ServerConfig.INSTANCE.isDebugMode()) {
-                LOGGER.info("Playing railgun shoot sound to player {} at ({}, {}) with {}ms offset", 
-                    player.getName().getString(), laserX, laserZ, elapsedMs);
-            }
-        } else {
-            LOGGER.warn("Railgun shoot sound not found in registry");
-        }
+    private static void playRailgunSoundToPlayer(ServerPlayerEntity player, Impact impact, SoundTier tier,
+                                                 double distance, long elapsedMs) {
+        // The client seeks to the offset, so a player re-entering hears the sound where it currently is
+        float volume = impact.getAttenuation(player.getX(), player.getY(), player.getZ());
+        SoundPacketQueue.queuePlayAt(player, impact.id, tier.soundId, volume, 1.0f, distance, (int) elapsedMs);
     }
     
     /**
-     * Sends a packet to the client to stop area-based sounds.
+     * Queues a command for the client to stop the impact's sound, whichever tier it is playing.
      */
-    private static void stopAreaSoundsForPlayer(ServerPlayerEntity player) {
-        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
-        buf.writeIdentifier(SoundsRegistry.RAILGUN_SHOOT_ID);
-        
-        ServerPlayNetworking.send(player, STOP_AREA_SOUND_PACKET_ID, buf);
-        
-        if (ServerConfig.INSTANCE.isDebugMode()) {
-            LOGGER.info("Sent stop sound packet to player {}", player.getName().getString());
-        }
+    private static void stopAreaSoundsForPlayer(ServerPlayerEntity player, Impact impact) {
+        SoundPacketQueue.queueStop(player, impact.id, SoundsRegistry.RAILGUN_SHOOT_ID);
+        SoundLogger.log(SoundEventType.STOP, player.getId(), impact.id, SoundsRegistry.RAILGUN_SHOOT, player.getX(), player.getZ(), 0.0);
     }
 }
@@ -2,68 +2,272 @@ package io.github.hyisnoob.railgunsounds.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import io.github.hyisnoob.railgunsounds.OrbitalRailgunSounds;
+import io.github.hyisnoob.railgunsounds.util.BackgroundExecutor;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
+/**
+ * Server-side settings. Values are published as an immutable {@link Snapshot} through a volatile field,
+ * so any thread reads a consistent set without locking. Changes are written to disk on the background
+ * executor; changes made in quick succession are merged into a single write.
+ */
 public class ServerConfig {
-    private static final File CONFIG_FILE = new File("config/orbital-railgun-sounds-server-config.json");
+    private static final Path CONFIG_FILE = Paths.get("config", "orbital-railgun-sounds-server-config.json");
+    private static final Path TEMP_FILE = CONFIG_FILE.resolveSibling(CONFIG_FILE.getFileName() + ".tmp");
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    // Changes made within this window are written together
+    private static final long SAVE_DEBOUNCE_MS = 500L;
     public static final ServerConfig INSTANCE = new ServerConfig();
-    private boolean debugMode = false;
-    private double soundRange = 500.0;
+
+    private volatile Snapshot snapshot = new Snapshot();
+    private final AtomicBoolean savePending = new AtomicBoolean(false);
+
+    /**
+     * Immutable set of config values. Also the on-disk JSON layout.
+     */
+    public static final class Snapshot {
+        private final boolean debugMode;
+        private final double soundRange;
+        private final int metricsIntervalSeconds; // 0 disables the metrics file
+        // Listeners within the near range hear the full sound, within the mid range a shorter clip, beyond it a rumble
+        private final double nearTierRange;
+        private final double midTierRange;
+        // Players enter an impact's range at soundRange but only leave it beyond soundRange + hysteresisBand,
+        // so walking along the edge does not restart the sound over and over
+        private final double hysteresisBand;
+        private final double verticalRange; // 0 ignores height differences
+        // Shots landing this close to each other within the window are played as one impact; 0 disables clustering
+        private final double clusterDistance;
+        private final int clusterWindowMs;
+
+        // Used by Gson, so fields missing from the file keep their defaults
+        private Snapshot() {
+            this.debugMode = false;
+            this.soundRange = 500.0;
+            this.metricsIntervalSeconds = 0;
+            this.nearTierRange = 150.0;
+            this.midTierRange = 300.0;
+            this.hysteresisBand = 16.0;
+            this.verticalRange = 0.0;
+            this.clusterDistance = 0.0;
+            this.clusterWindowMs = 500;
+        }
+
+        private Snapshot(Builder builder) {
+            this.debugMode = builder.debugMode;
+            this.soundRange = builder.soundRange;
+            this.metricsIntervalSeconds = builder.metricsIntervalSeconds;
+            this.nearTierRange = builder.nearTierRange;
+            this.midTierRange = builder.midTierRange;
+            this.hysteresisBand = builder.hysteresisBand;
+            this.verticalRange = builder.verticalRange;
+            this.clusterDistance = builder.clusterDistance;
+            this.clusterWindowMs = builder.clusterWindowMs;
+        }
+
+        public boolean isDebugMode() {
+            return debugMode;
+        }
+
+        public double getSoundRange() {
+            return soundRange;
+        }
+
+        public int getMetricsIntervalSeconds() {
+            return metricsIntervalSeconds;
+        }
+
+        public double getNearTierRange() {
+            return nearTierRange;
+        }
+
+        public double getMidTierRange() {
+            return midTierRange;
+        }
+
+        public double getHysteresisBand() {
+            return hysteresisBand;
+        }
+
+        public double getVerticalRange() {
+            return verticalRange;
+        }
+
+        public double getClusterDistance() {
+            return clusterDistance;
+        }
+
+        public int getClusterWindowMs() {
+            return clusterWindowMs;
+        }
+    }
+
+    /**
+     * Mutable copy of a {@link Snapshot}, so a setter only names the values it changes.
+     */
+    private static final class Builder {
+        private boolean debugMode;
+        private double soundRange;
+        private int metricsIntervalSeconds;
+        private double nearTierRange;
+        private double midTierRange;
+        private double hysteresisBand;
+        private double verticalRange;
+        private double clusterDistance;
+        private int clusterWindowMs;
+
+        private Builder(Snapshot values) {
+            this.debugMode = values.debugMode;
+            this.soundRange = values.soundRange;
+            this.metricsIntervalSeconds = values.metricsIntervalSeconds;
+            this.nearTierRange = values.nearTierRange;
+            this.midTierRange = values.midTierRange;
+            this.hysteresisBand = values.hysteresisBand;
+            this.verticalRange = values.verticalRange;
+            this.clusterDistance = values.clusterDistance;
+            this.clusterWindowMs = values.clusterWindowMs;
+        }
+    }
+
+    /**
+     * @return The current values; read once and reuse when several values must agree with each other
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
 
     public boolean isDebugMode() {
-        return debugMode;
+        return snapshot.debugMode;
     }
 
     public double getSoundRange() {
-        return soundRange;
+        return snapshot.soundRange;
+    }
+
+    public int getMetricsIntervalSeconds() {
+        return snapshot.metricsIntervalSeconds;
     }
 
     public void setDebugMode(boolean debugMode) {
-        this.debugMode = debugMode;
-        saveConfig();
+        update(values -> values.debugMode = debugMode);
     }
 
     public void setSoundRange(double soundRange) {
-        this.soundRange = soundRange;
-        saveConfig();
+        update(values -> values.soundRange = soundRange);
+    }
+
+    public void setMetricsIntervalSeconds(int metricsIntervalSeconds) {
+        update(values -> values.metricsIntervalSeconds = metricsIntervalSeconds);
+    }
+
+    /**
+     * Sets the outer edges of the near and mid tiers. The mid range is raised to the near range if lower.
+     */
+    public void setTierRanges(double nearTierRange, double midTierRange) {
+        update(values -> {
+            values.nearTierRange = nearTierRange;
+            values.midTierRange = Math.max(nearTierRange, midTierRange);
+        });
+    }
+
+    /**
+     * Sets how far past the sound range players must move before they leave it, and how far above or below
+     * an impact they can be while inside it (0 for no vertical limit).
+     */
+    public void setRangeBand(double hysteresisBand, double verticalRange) {
+        update(values -> {
+            values.hysteresisBand = hysteresisBand;
+            values.verticalRange = verticalRange;
+        });
+    }
+
+    /**
+     * Sets how close and how soon after each other shots must land to be played as one impact.
+     * A distance of 0 turns clustering off, so every shot is played.
+     */
+    public void setShotClustering(double clusterDistance, int clusterWindowMs) {
+        update(values -> {
+            values.clusterDistance = clusterDistance;
+            values.clusterWindowMs = clusterWindowMs;
+        });
+    }
+
+    /**
+     * Publishes a copy of the current values with the given changes applied, and schedules a save.
+     */
+    private synchronized void update(Consumer<Builder> changes) {
+        Builder values = new Builder(snapshot);
+        changes.accept(values);
+        snapshot = new Snapshot(values);
+        scheduleSave();
     }
 
     public void loadConfig() {
-        if (CONFIG_FILE.exists()) {
-            try (FileReader reader = new FileReader(CONFIG_FILE)) {
-                ServerConfig config = GSON.fromJson(reader, ServerConfig.class);
+        if (Files.exists(CONFIG_FILE)) {
+            try (Reader reader = Files.newBufferedReader(CONFIG_FILE, StandardCharsets.UTF_8)) {
+                Snapshot config = GSON.fromJson(reader, Snapshot.class);
                 if (config != null) {
-                    this.debugMode = config.debugMode;
-                    this.soundRange = config.soundRange;
+                    snapshot = config;
                 } else {
-                    OrbitalRailgunSounds.LOGGER.warn("Config file parsed to null, using defaults: {}", CONFIG_FILE.getAbsolutePath());
+                    OrbitalRailgunSounds.LOGGER.warn("Config file parsed to null, using defaults: {}", CONFIG_FILE.toAbsolutePath());
                 }
-            } catch (IOException e) {
+            } catch (IOException | JsonParseException e) {
                 OrbitalRailgunSounds.LOGGER.error("Failed to load config: {}", e.getMessage());
             }
         } else {
-            saveConfig();
+            scheduleSave();
         }
     }
 
-    private void saveConfig() {
-        try {
-            File parentDir = CONFIG_FILE.getParentFile();
-            if (parentDir != null && !parentDir.exists()) {
-                boolean created = parentDir.mkdirs();
-                if (!created && !parentDir.exists()) {
-                    OrbitalRailgunSounds.LOGGER.warn("Could not create config directory: {}", parentDir.getAbsolutePath());
+    /**
+     * Writes a pending change right away on the calling thread. Used on shutdown,
+     * since the background thread does not outlive the server.
+     */
+    public void flush() {
+        if (savePending.getAndSet(false)) {
+            saveConfig(snapshot);
+        }
+    }
+
+    private void scheduleSave() {
+        // A write already scheduled picks up this change as well, since it reads the latest snapshot
+        if (savePending.compareAndSet(false, true)) {
+            BackgroundExecutor.schedule(() -> {
+                if (savePending.getAndSet(false)) {
+                    saveConfig(snapshot);
                 }
+            }, SAVE_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static synchronized void saveConfig(Snapshot values) {
+        try {
+            Path parentDir = CONFIG_FILE.getParent();
+            if (parentDir != null) {
+                Files.createDirectories(parentDir);
             }
 
-            try (FileWriter writer = new FileWriter(CONFIG_FILE)) {
-                GSON.toJson(this, writer);
+            // Write the whole file next to the config, then swap it in so a crash never leaves a partial file
+            try (Writer writer = Files.newBufferedWriter(TEMP_FILE, StandardCharsets.UTF_8)) {
+                GSON.toJson(values, writer);
+            }
+            try {
+                Files.move(TEMP_FILE, CONFIG_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(TEMP_FILE, CONFIG_FILE, StandardCopyOption.REPLACE_EXISTING);
             }
         } catch (IOException e) {
             OrbitalRailgunSounds.LOGGER.error("Failed to save config: {}", e.getMessage());
@@ -0,0 +1,82 @@
+package io.github.hyisnoob.railgunsounds.impact;
+
+import io.github.hyisnoob.railgunsounds.OrbitalRailgunSounds;
+import io.github.hyisnoob.railgunsounds.spatial.AttenuationMap;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * A single laser impact whose sound is still playing.
+ * The id is a small slot number that gets reused once the impact has expired,
+ * so per-player membership can be stored in a compact bitset.
+ */
+public class Impact {
+    public final int id;
+    public final RegistryKey<World> worldKey;
+    public final double x;
+    public final double y;
+    public final double z;
+    private long fireTimestamp; // When the railgun was last fired at this impact (in milliseconds)
+    private AttenuationMap attenuationMap; // Null until the first shot at this impact has been applied
+
+    Impact(int id, RegistryKey<World> worldKey, double x, double y, double z, long fireTimestamp) {
+        this.id = id;
+        this.worldKey = worldKey;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.fireTimestamp = fireTimestamp;
+    }
+
+    /**
+     * @return When the railgun was last fired at this impact, in milliseconds; sounds are synced to this
+     */
+    public long getFireTimestamp() {
+        return fireTimestamp;
+    }
+
+    /**
+     * Restarts the impact's sound for another shot at the same location. Only called by {@link ImpactRegistry},
+     * which keeps its expiry queue ordered.
+     */
+    void refire(long fireTimestamp) {
+        this.fireTimestamp = fireTimestamp;
+    }
+
+    /**
+     * @return The time (in milliseconds) at which the impact's sound has finished playing
+     */
+    public long getExpiryTime() {
+        return fireTimestamp + OrbitalRailgunSounds.RAILGUN_SOUND_DURATION_MS;
+    }
+
+    public boolean isExpired(long currentTime) {
+        return currentTime >= getExpiryTime();
+    }
+
+    /**
+     * Keeps the terrain attenuation computed for the impact for its lifetime.
+     * Shots merged into the impact later do not replace it.
+     */
+    public void attachAttenuationMap(AttenuationMap map) {
+        if (attenuationMap == null) {
+            attenuationMap = map;
+        }
+    }
+
+    /**
+     * @return The factor to scale the impact's volume by for a listener at the given position
+     * (1 if no attenuation was computed)
+     */
+    public float getAttenuation(double x, double y, double z) {
+        return attenuationMap == null ? 1.0f : attenuationMap.getAttenuation(x, y, z);
+    }
+
+    public boolean isIn(World world) {
+        return world.getRegistryKey() == worldKey;
+    }
+
+    public boolean isAt(double laserX, double laserZ) {
+        return x == laserX && z == laserZ;
+    }
+}
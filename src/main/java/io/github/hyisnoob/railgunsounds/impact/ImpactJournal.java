@@ -0,0 +1,277 @@
+package io.github.hyisnoob.railgunsounds.impact;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.github.hyisnoob.railgunsounds.OrbitalRailgunSounds;
+import io.github.hyisnoob.railgunsounds.util.BackgroundExecutor;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.world.World;
+
+/**
+ * Append-only journal of the live impacts, so a server restart in the middle of a shot's sound keeps its timing.
+ * Every new or re-fired impact appends one small record; the file is rewritten with only the live impacts once most
+ * of its records have expired, and on shutdown. Records are encoded on the server thread and written on the
+ * {@link BackgroundExecutor}, so a shot never waits for the disk. A record cut short by a crash is ignored.
+ * The journal is kept in the world's save directory, so each world restores only its own impacts.
+ *
+ * <p>File layout: int magic, byte version, then records. A world record (byte 1, byte index, UTF world id)
+ * assigns an index to a world before its first impact; an impact record (byte 2, byte world index,
+ * double x, y, z, long fire timestamp) describes one impact.
+ */
+public class ImpactJournal {
+    private static final String JOURNAL_FILE_NAME = "orbital-railgun-sounds-impacts.bin";
+    private static final int MAGIC = 0x4F525349; // "ORSI"
+    private static final byte VERSION = 1;
+    private static final byte WORLD_RECORD = 1;
+    private static final byte IMPACT_RECORD = 2;
+    // The file is compacted once it holds this many more records than there are live impacts
+    private static final int COMPACT_SLACK = 256;
+
+    // Server thread state: world indices assigned in the current file and records appended to it
+    private static final Map<RegistryKey<World>, Integer> worldIndices = new HashMap<>();
+    private static int recordCount = 0;
+    // Also read by queued compactions, which must not reopen the file after shutdown
+    private static volatile boolean open = false;
+    // Set by restore for the running server's world
+    private static volatile Path journalFile = null;
+
+    // Only touched by the background thread, or on shutdown while holding the class lock
+    private static FileChannel channel = null;
+
+    /**
+     * Re-registers the impacts saved by the previous run that are still playing, then starts journaling.
+     * Impacts in worlds that no longer exist are dropped. Must be called on the server thread once the worlds are loaded.
+     */
+    public static void restore(MinecraftServer server) {
+        long currentTime = System.currentTimeMillis();
+        int restored = 0;
+        Path file = server.getSavePath(WorldSavePath.ROOT).resolve(JOURNAL_FILE_NAME);
+        journalFile = file;
+
+        if (Files.exists(file)) {
+            try (InputStream fileInput = Files.newInputStream(file);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(fileInput))) {
+                if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                    OrbitalRailgunSounds.LOGGER.warn("Ignoring impact journal with an unknown format: {}", file.toAbsolutePath());
+                } else {
+                    restored = readRecords(in, server, currentTime);
+                }
+            } catch (EOFException e) {
+                // Empty or truncated header, nothing to restore
+            } catch (IOException e) {
+                OrbitalRailgunSounds.LOGGER.error("Failed to read impact journal: {}", e.getMessage());
+            }
+        }
+
+        if (restored > 0) {
+            OrbitalRailgunSounds.LOGGER.info("Restored {} railgun impacts from the previous run", restored);
+        }
+        open = true;
+        compact();
+    }
+
+    private static int readRecords(DataInputStream in, MinecraftServer server, long currentTime) throws IOException {
+        Map<Integer, RegistryKey<World>> worlds = new HashMap<>();
+        int restored = 0;
+
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == WORLD_RECORD) {
+                    int index = in.readUnsignedByte();
+                    Identifier worldId = Identifier.tryParse(in.readUTF());
+                    if (worldId != null) {
+                        worlds.put(index, RegistryKey.of(RegistryKeys.WORLD, worldId));
+                    }
+                } else if (type == IMPACT_RECORD) {
+                    RegistryKey<World> worldKey = worlds.get(in.readUnsignedByte());
+                    double x = in.readDouble();
+                    double y = in.readDouble();
+                    double z = in.readDouble();
+                    long fireTimestamp = in.readLong();
+
+                    if (worldKey != null && server.getWorld(worldKey) != null
+                            && currentTime < fireTimestamp + OrbitalRailgunSounds.RAILGUN_SOUND_DURATION_MS) {
+                        ImpactRegistry.register(worldKey, x, y, z, fireTimestamp);
+                        restored++;
+                    }
+                } else {
+                    OrbitalRailgunSounds.LOGGER.warn("Impact journal has an unknown record type {}, ignoring the rest", type);
+                    break;
+                }
+            }
+        } catch (EOFException e) {
+            // End of the file, or a record cut short by a crash
+        }
+        return restored;
+    }
+
+    /**
+     * Appends a newly registered or re-fired impact. Must be called on the server thread; does nothing before {@link #restore}.
+     */
+    static void append(Impact impact) {
+        if (!open) {
+            return;
+        }
+        if (recordCount > ImpactRegistry.getActiveCount() + COMPACT_SLACK) {
+            // Most of the file is expired impacts, rewrite it instead (which includes this impact)
+            compact();
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeImpact(out, impact);
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        BackgroundExecutor.execute(() -> writeToChannel(record));
+    }
+
+    /**
+     * Writes the live impacts on the calling thread and stops journaling. Used on shutdown,
+     * since the background thread does not outlive the server.
+     */
+    public static void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        byte[] contents = encodeLiveImpacts();
+        synchronized (ImpactJournal.class) {
+            closeChannel();
+            replaceFile(journalFile, contents);
+        }
+    }
+
+    private static void compact() {
+        byte[] contents = encodeLiveImpacts();
+        Path file = journalFile;
+        BackgroundExecutor.execute(() -> {
+            synchronized (ImpactJournal.class) {
+                // Every restore resolves a new path, so this also skips compactions queued before the last restart
+                if (!open || file != journalFile) {
+                    return;
+                }
+                closeChannel();
+                if (replaceFile(file, contents)) {
+                    try {
+                        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    } catch (IOException e) {
+                        OrbitalRailgunSounds.LOGGER.error("Failed to open impact journal: {}", e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    // Starts a new file: world indices are reassigned and the record count restarts from the live impacts
+    private static byte[] encodeLiveImpacts() {
+        worldIndices.clear();
+        recordCount = 0;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + ImpactRegistry.getActiveCount() * 35);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            for (Impact impact : ImpactRegistry.getAllActiveImpacts()) {
+                writeImpact(out, impact);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeImpact(DataOutputStream out, Impact impact) throws IOException {
+        Integer worldIndex = worldIndices.get(impact.worldKey);
+        if (worldIndex == null) {
+            // Indices are stored in a byte; servers with more worlds than that are not worth a wider format
+            if (worldIndices.size() > 0xFF) {
+                return;
+            }
+            worldIndex = worldIndices.size();
+            worldIndices.put(impact.worldKey, worldIndex);
+            out.writeByte(WORLD_RECORD);
+            out.writeByte(worldIndex);
+            out.writeUTF(impact.worldKey.getValue().toString());
+        }
+
+        out.writeByte(IMPACT_RECORD);
+        out.writeByte(worldIndex);
+        out.writeDouble(impact.x);
+        out.writeDouble(impact.y);
+        out.writeDouble(impact.z);
+        out.writeLong(impact.getFireTimestamp());
+        recordCount++;
+    }
+
+    private static synchronized void writeToChannel(ByteBuffer record) {
+        // Null after a failed open or once closed, the next compaction or shutdown writes the impact anyway
+        if (channel == null) {
+            return;
+        }
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            OrbitalRailgunSounds.LOGGER.error("Failed to append to impact journal: {}", e.getMessage());
+            closeChannel();
+        }
+    }
+
+    private static void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                OrbitalRailgunSounds.LOGGER.warn("Failed to close impact journal: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private static boolean replaceFile(Path file, byte[] contents) {
+        try {
+            Path parentDir = file.getParent();
+            if (parentDir != null) {
+                Files.createDirectories(parentDir);
+            }
+
+            // Same as the config: write next to the journal, then swap it in
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tempFile, contents);
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            OrbitalRailgunSounds.LOGGER.error("Failed to write impact journal: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.hyisnoob.railgunsounds.impact;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
+
+/**
+ * Registry of the laser impacts whose sound is still playing, kept separately per world.
+ * Each impact lives for {@code RAILGUN_SOUND_DURATION_MS} after it was fired.
+ * Ids are shared by all worlds, so a player's membership bitsets stay valid when they change dimension.
+ * Impacts are also kept in a queue ordered by expiry time, so expiring them only looks at the ones that are due.
+ * Must only be accessed from the server thread.
+ */
+public class ImpactRegistry {
+    private static final Map<RegistryKey<World>, List<Impact>> worldImpacts = new HashMap<>();
+    // Audiences are applied as workers finish, so impacts are not always registered in fire order
+    private static final PriorityQueue<Impact> expiryQueue = new PriorityQueue<>(Comparator.comparingLong(Impact::getExpiryTime));
+    private static final BitSet usedIds = new BitSet();
+    private static Impact[] impactsById = new Impact[16];
+
+    /**
+     * Registers a new impact, or returns the live impact already tracked at the same location
+     * in the same world. A later shot at that location restarts the impact's sound: its fire timestamp
+     * and expiry move to the new shot, so players entering later are synced to the sound just played.
+     */
+    public static Impact register(RegistryKey<World> worldKey, double laserX, double laserY, double laserZ, long fireTimestamp) {
+        List<Impact> impacts = worldImpacts.computeIfAbsent(worldKey, key -> new ArrayList<>());
+        for (int i = 0, size = impacts.size(); i < size; i++) {
+            Impact impact = impacts.get(i);
+            if (impact.isAt(laserX, laserZ) && !impact.isExpired(fireTimestamp)) {
+                if (fireTimestamp > impact.getFireTimestamp()) {
+                    // The expiry queue is ordered by fire time, so the impact has to be re-inserted
+                    expiryQueue.remove(impact);
+                    impact.refire(fireTimestamp);
+                    expiryQueue.add(impact);
+                    ImpactJournal.append(impact);
+                }
+                return impact;
+            }
+        }
+
+        // Reuse the lowest free id so membership bitsets stay small
+        int id = usedIds.nextClearBit(0);
+        usedIds.set(id);
+        if (id >= impactsById.length) {
+            Impact[] grown = new Impact[impactsById.length * 2];
+            System.arraycopy(impactsById, 0, grown, 0, impactsById.length);
+            impactsById = grown;
+        }
+
+        Impact impact = new Impact(id, worldKey, laserX, laserY, laserZ, fireTimestamp);
+        impactsById[id] = impact;
+        impacts.add(impact);
+        expiryQueue.add(impact);
+        ImpactJournal.append(impact);
+        return impact;
+    }
+
+    /**
+     * @return The live impact with the given id, or null if there is none
+     */
+    public static Impact get(int id) {
+        return id >= 0 && id < impactsById.length ? impactsById[id] : null;
+    }
+
+    /**
+     * @return A read-only view of the live impacts in the given world
+     */
+    public static List<Impact> getActiveImpacts(RegistryKey<World> worldKey) {
+        List<Impact> impacts = worldImpacts.get(worldKey);
+        return impacts != null ? Collections.unmodifiableList(impacts) : Collections.emptyList();
+    }
+
+    /**
+     * @return A read-only view of the live impacts in every world, in no particular order
+     */
+    public static Collection<Impact> getAllActiveImpacts() {
+        return Collections.unmodifiableCollection(expiryQueue);
+    }
+
+    /**
+     * @return The number of live impacts across all worlds
+     */
+    public static int getActiveCount() {
+        return expiryQueue.size();
+    }
+
+    /**
+     * Removes every impact whose sound has finished and frees its id.
+     * Worlds left without live impacts are dropped.
+     *
+     * @param currentTime The current time in milliseconds
+     * @param onExpired Invoked with the id of each removed impact, before the id can be reused
+     */
+    public static void expireImpacts(long currentTime, IntConsumer onExpired) {
+        while (!expiryQueue.isEmpty() && expiryQueue.peek().isExpired(currentTime)) {
+            Impact impact = expiryQueue.poll();
+
+            List<Impact> impacts = worldImpacts.get(impact.worldKey);
+            impacts.remove(impact);
+            if (impacts.isEmpty()) {
+                worldImpacts.remove(impact.worldKey);
+            }
+
+            onExpired.accept(impact.id);
+            impactsById[impact.id] = null;
+            usedIds.clear(impact.id);
+        }
+    }
+
+    /**
+     * Drops every impact, e.g. when the server stops; the journal keeps the ones still playing.
+     */
+    public static void clear() {
+        worldImpacts.clear();
+        expiryQueue.clear();
+        usedIds.clear();
+        impactsById = new Impact[16];
+    }
+}
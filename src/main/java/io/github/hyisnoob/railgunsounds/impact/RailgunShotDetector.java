@@ -0,0 +1,205 @@
+package io.github.hyisnoob.railgunsounds.impact;
+
+import io.github.hyisnoob.railgunsounds.config.ServerConfig;
+import io.github.hyisnoob.railgunsounds.metrics.SoundMetrics;
+import io.github.hyisnoob.railgunsounds.registry.SoundsRegistry;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Turns what the server itself sees of a railgun shot into a {@link ShotDispatcher.Shot}.
+ * A shot is reported twice: the railgun going on cooldown on the server proves that the player fired,
+ * and the railgun's shoot packet says where the laser landed. The two reports of the same player are paired
+ * into one shot at the packet's target, timed by the cooldown. A packet is only accepted while a cooldown is
+ * pending, or if one follows within {@link #PAIRING_WINDOW_MS}, so a client cannot make up shots of its own;
+ * targets too far from the shooter or in unloaded chunks are rejected. A cooldown without a packet in time
+ * falls back to the shooter's position. Must only be accessed from the server thread.
+ */
+public class RailgunShotDetector {
+    private static final Identifier ORBITAL_RAILGUN_ITEM_ID = new Identifier("orbital_railgun", "orbital_railgun");
+    // How long a report waits for the other report of the same shot
+    private static final long PAIRING_WINDOW_MS = 500L;
+    // Furthest (horizontal) distance from the shooter a target is accepted at, well past what the railgun can aim at
+    private static final double MAX_TARGET_DISTANCE = 512.0;
+
+    // The unpaired report of each player, by entity id
+    private static final Int2ObjectOpenHashMap<PendingReport> pendingReports = new Int2ObjectOpenHashMap<>();
+    private static boolean shootPacketAvailable = true;
+
+    /**
+     * Half of a shot, waiting for the other half. Exactly one of the two parts is set.
+     */
+    private static final class PendingReport {
+        final long receivedAt;
+        // From the cooldown report: when the shot was fired and where the shooter stood
+        long fireTimestamp = -1L;
+        ServerPlayerEntity shooter;
+        RegistryKey<World> worldKey;
+        double shooterX;
+        double shooterY;
+        double shooterZ;
+        // From the shoot packet, already validated
+        BlockPos target;
+
+        PendingReport(long receivedAt) {
+            this.receivedAt = receivedAt;
+        }
+
+        boolean hasCooldown() {
+            return fireTimestamp >= 0L;
+        }
+    }
+
+    /**
+     * Tells the detector whether shoot packets can be received at all (another mod may own the channel).
+     * Without them, cooldown reports are turned into shots right away instead of waiting for a target.
+     */
+    public static void setShootPacketAvailable(boolean available) {
+        shootPacketAvailable = available;
+    }
+
+    /**
+     * Called when an item goes on cooldown for a player. Fires a shot if the item is the railgun,
+     * at the target of a pending shoot packet or, once no packet arrived in time, at the player's position.
+     */
+    public static void onCooldownStarted(ServerPlayerEntity player, Item item) {
+        if (!ORBITAL_RAILGUN_ITEM_ID.equals(Registries.ITEM.getId(item))) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        PendingReport pending = getPairable(player.getId(), now);
+        if (pending != null && pending.hasCooldown()) {
+            // The same shot reported again
+            return;
+        }
+
+        BlockPos pos = player.getBlockPos();
+        RegistryKey<World> worldKey = player.getServerWorld().getRegistryKey();
+        if (pending != null) {
+            pendingReports.remove(player.getId());
+            SoundMetrics.SHOTS_MERGED.increment();
+            submit(player, worldKey, now, pending.target.getX() + 0.5, pending.target.getY() + 0.5, pending.target.getZ() + 0.5);
+        } else if (!shootPacketAvailable) {
+            submit(player, worldKey, now, pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
+        } else {
+            PendingReport report = new PendingReport(now);
+            report.fireTimestamp = now;
+            report.shooter = player;
+            report.worldKey = worldKey;
+            report.shooterX = pos.getX() + 0.5;
+            report.shooterY = pos.getY() + 0.5;
+            report.shooterZ = pos.getZ() + 0.5;
+            pendingReports.put(player.getId(), report);
+        }
+    }
+
+    /**
+     * Called for the railgun's shoot packet, which carries the impact position. Completes the player's pending
+     * cooldown report, or waits for one; the shot is never fired from the packet alone.
+     */
+    public static void onShootPacket(ServerPlayerEntity player, BlockPos target, long receivedAt) {
+        if (!isPlausibleTarget(player, target)) {
+            SoundMetrics.SHOT_PACKETS_REJECTED.increment();
+            return;
+        }
+
+        PendingReport pending = getPairable(player.getId(), receivedAt);
+        if (pending != null && pending.hasCooldown()) {
+            pendingReports.remove(player.getId());
+            SoundMetrics.SHOTS_MERGED.increment();
+            submit(player, pending.worldKey, pending.fireTimestamp, target.getX() + 0.5, target.getY() + 0.5, target.getZ() + 0.5);
+            return;
+        }
+
+        // Either nothing is pending or it is another unpaired packet; only the latest target is kept
+        PendingReport report = new PendingReport(receivedAt);
+        report.target = target;
+        pendingReports.put(player.getId(), report);
+    }
+
+    /**
+     * Fires the cooldown reports whose packet did not arrive in time at the shooter's position
+     * and drops packets no cooldown followed. Called at the end of every tick, before the shots are dispatched.
+     */
+    public static void tick(long currentTime) {
+        if (pendingReports.isEmpty()) {
+            return;
+        }
+
+        ObjectIterator<Int2ObjectMap.Entry<PendingReport>> iterator = pendingReports.int2ObjectEntrySet().iterator();
+        while (iterator.hasNext()) {
+            PendingReport report = iterator.next().getValue();
+            if (currentTime < report.receivedAt + PAIRING_WINDOW_MS) {
+                continue;
+            }
+
+            iterator.remove();
+            expire(report);
+        }
+    }
+
+    /**
+     * Drops the pending report of a player (used when they disconnect).
+     */
+    public static void forget(int playerId) {
+        pendingReports.remove(playerId);
+    }
+
+    /**
+     * Drops every pending report, e.g. when the server stops.
+     */
+    public static void clear() {
+        pendingReports.clear();
+    }
+
+    /**
+     * @return The player's pending report if it can still be paired; one whose window has run out
+     * since the last tick is expired first
+     */
+    private static PendingReport getPairable(int playerId, long currentTime) {
+        PendingReport pending = pendingReports.get(playerId);
+        if (pending != null && currentTime >= pending.receivedAt + PAIRING_WINDOW_MS) {
+            pendingReports.remove(playerId);
+            expire(pending);
+            return null;
+        }
+        return pending;
+    }
+
+    private static void expire(PendingReport report) {
+        if (report.hasCooldown()) {
+            submit(report.shooter, report.worldKey, report.fireTimestamp, report.shooterX, report.shooterY, report.shooterZ);
+        } else {
+            SoundMetrics.SHOT_PACKETS_REJECTED.increment();
+        }
+    }
+
+    private static boolean isPlausibleTarget(ServerPlayerEntity player, BlockPos target) {
+        double dx = target.getX() + 0.5 - player.getX();
+        double dz = target.getZ() + 0.5 - player.getZ();
+        if (dx * dx + dz * dz > MAX_TARGET_DISTANCE * MAX_TARGET_DISTANCE) {
+            return false;
+        }
+
+        ServerWorld world = player.getServerWorld();
+        return target.getY() >= world.getBottomY() && target.getY() < world.getTopY()
+                && world.isChunkLoaded(target.getX() >> 4, target.getZ() >> 4);
+    }
+
+    private static void submit(ServerPlayerEntity player, RegistryKey<World> worldKey, long fireTimestamp,
+                               double x, double y, double z) {
+        ShotDispatcher.submit(new ShotDispatcher.Shot(player.getId(), worldKey,
+                SoundsRegistry.RAILGUN_SHOOT_ID, SoundsRegistry.RAILGUN_SHOOT, 1.0f, 1.0f, x, y, z,
+                ServerConfig.INSTANCE.getSoundRange(), fireTimestamp));
+    }
+}
@@ -0,0 +1,359 @@
+package io.github.hyisnoob.railgunsounds.impact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.hyisnoob.railgunsounds.config.ServerConfig;
+import io.github.hyisnoob.railgunsounds.metrics.SoundMetrics;
+import io.github.hyisnoob.railgunsounds.network.PlayerSoundPreferences;
+import io.github.hyisnoob.railgunsounds.spatial.AttenuationMap;
+import io.github.hyisnoob.railgunsounds.spatial.PlayerPositionSnapshot;
+import io.github.hyisnoob.railgunsounds.util.WorkerPool;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.sound.SoundEvent;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+
+/**
+ * Works out who can hear each shot off the server thread. Shots received during a tick are collected,
+ * then at the end of the tick the player positions are captured once and every shot's audience is computed
+ * on the {@link WorkerPool} against that snapshot, along with the terrain attenuation around the shot.
+ * The result is handed back to the server thread, where only the state updates and the play/stop actions
+ * are applied.
+ *
+ * <p>Bursts of shots from different shooters (e.g. automated railguns firing together) are coalesced before
+ * that: shots landing within the configured cluster distance and window of each other are played as a single
+ * impact, so the burst costs one audience computation and one sound per player instead of one per shot.
+ * Merging only collapses the duplicates: the client caps every sound at full volume, so a cluster is never
+ * louder than a single shot at full volume.
+ */
+public class ShotDispatcher {
+    // Positions are up to a couple of ticks old by the time a result is applied,
+    // so pad the audience by more than a player can move in that time
+    private static final double STALE_POSITION_MARGIN = 8.0;
+    // A cluster of shots is as loud as its loudest shot times the square root of its size, up to this;
+    // the client sound engine clamps anything louder to full volume
+    private static final float MAX_CLUSTER_VOLUME = 1.0f;
+
+    private static final List<Shot> pendingShots = new ArrayList<>();
+    // Clusters emitted within the last cluster window, oldest first
+    private static final List<Cluster> recentClusters = new ArrayList<>();
+    private static AudienceListener audienceCallback = null;
+
+    /**
+     * A shot waiting for its audience.
+     *
+     * @param shooterId The entity id of the player who fired
+     * @param sound The sound to play to the players in range
+     */
+    public record Shot(int shooterId, RegistryKey<World> worldKey, Identifier soundId, SoundEvent sound,
+                       float volume, float pitch, double x, double y, double z, double range, long fireTimestamp) {
+    }
+
+    /**
+     * The players near a shot, with their positions and distances as of the snapshot,
+     * and the terrain attenuation around the shot.
+     */
+    public static final class Audience {
+        private static final int STRIDE = 5; // x, y, z, horizontal distance, 3D distance squared
+
+        private ServerPlayerEntity[] players = new ServerPlayerEntity[16];
+        private int[] playerIds = new int[16];
+        private double[] coordinates = new double[16 * STRIDE];
+        private int size;
+        private AttenuationMap attenuationMap;
+
+        void add(ServerPlayerEntity player, int playerId, double playerX, double playerY, double playerZ,
+                 double horizontalDistance, double distanceSquared) {
+            if (size == players.length) {
+                players = Arrays.copyOf(players, size * 2);
+                playerIds = Arrays.copyOf(playerIds, size * 2);
+                coordinates = Arrays.copyOf(coordinates, size * 2 * STRIDE);
+            }
+            players[size] = player;
+            playerIds[size] = playerId;
+            int offset = size * STRIDE;
+            coordinates[offset] = playerX;
+            coordinates[offset + 1] = playerY;
+            coordinates[offset + 2] = playerZ;
+            coordinates[offset + 3] = horizontalDistance;
+            coordinates[offset + 4] = distanceSquared;
+            size++;
+        }
+
+        /**
+         * @return The terrain attenuation around the shot, or null if its world was not loaded
+         */
+        public AttenuationMap getAttenuationMap() {
+            return attenuationMap;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return The player, or null if the audience was computed against a snapshot of ids only
+         */
+        public ServerPlayerEntity getPlayer(int index) {
+            return players[index];
+        }
+
+        public int getPlayerId(int index) {
+            return playerIds[index];
+        }
+
+        public double getX(int index) {
+            return coordinates[index * STRIDE];
+        }
+
+        public double getY(int index) {
+            return coordinates[index * STRIDE + 1];
+        }
+
+        public double getZ(int index) {
+            return coordinates[index * STRIDE + 2];
+        }
+
+        public double getHorizontalDistance(int index) {
+            return coordinates[index * STRIDE + 3];
+        }
+
+        /**
+         * @return The squared 3D distance from the player to the center of the impact block
+         */
+        public double getDistanceSquared(int index) {
+            return coordinates[index * STRIDE + 4];
+        }
+    }
+
+    /**
+     * Shots coalesced into one impact. The first shot anchors the cluster: later shots join it if they land
+     * within the cluster distance of it and before its window runs out.
+     */
+    private static final class Cluster {
+        private final Shot anchor;
+        private final List<Shot> members = new ArrayList<>(1);
+
+        private Cluster(Shot anchor) {
+            this.anchor = anchor;
+            members.add(anchor);
+        }
+
+        private boolean accepts(Shot shot, double distance, long windowMs) {
+            if (!shot.worldKey().equals(anchor.worldKey()) || shot.fireTimestamp() > anchor.fireTimestamp() + windowMs) {
+                return false;
+            }
+            double dx = shot.x() - anchor.x();
+            double dz = shot.z() - anchor.z();
+            return dx * dx + dz * dz <= distance * distance;
+        }
+
+        /**
+         * @return The single shot that stands in for the whole cluster
+         */
+        private Shot merge() {
+            if (members.size() == 1) {
+                return anchor;
+            }
+
+            Shot loudest = anchor;
+            for (Shot member : members) {
+                if (member.volume() > loudest.volume()) {
+                    loudest = member;
+                }
+            }
+
+            float volume = Math.min(MAX_CLUSTER_VOLUME, loudest.volume() * (float) Math.sqrt(members.size()));
+            return new Shot(anchor.shooterId(), anchor.worldKey(), loudest.soundId(), loudest.sound(), volume,
+                    loudest.pitch(), anchor.x(), anchor.y(), anchor.z(), anchor.range(), anchor.fireTimestamp());
+        }
+    }
+
+    /**
+     * Receives computed audiences on the server thread.
+     */
+    @FunctionalInterface
+    public interface AudienceListener {
+        void onAudienceReady(Shot shot, Audience audience);
+    }
+
+    public static void setAudienceCallback(AudienceListener callback) {
+        audienceCallback = callback;
+    }
+
+    /**
+     * Queues a shot for the end of the current tick. The reports of a single shot are already paired
+     * by {@link RailgunShotDetector}. Must be called on the server thread.
+     */
+    public static void submit(Shot shot) {
+        SoundMetrics.SHOTS_RECEIVED.increment();
+        pendingShots.add(shot);
+    }
+
+    /**
+     * Drops the queued shots and the recent clusters, e.g. when the server stops.
+     */
+    public static void clear() {
+        pendingShots.clear();
+        recentClusters.clear();
+    }
+
+    /**
+     * Captures the player positions and hands the shots of this tick to the workers, one per cluster.
+     * Called at the end of every tick; does nothing if no shot was received.
+     */
+    public static void dispatch(MinecraftServer server) {
+        List<Shot> shots = takeShots();
+        if (shots.isEmpty()) {
+            return;
+        }
+
+        // Players who muted the railgun are left out of every shot, so they get no area state either
+        PlayerPositionSnapshot snapshot = PlayerPositionSnapshot.capture(server.getPlayerManager().getPlayerList(),
+                player -> !PlayerSoundPreferences.isShotSoundMuted(player.getId()));
+
+        for (int i = 0, size = shots.size(); i < size; i++) {
+            Shot shot = shots.get(i);
+            // Terrain has to be read here, the attenuation itself is traced by the worker
+            AttenuationMap.Heights heights = captureHeights(server, shot);
+
+            WorkerPool.execute(() -> {
+                long start = System.nanoTime();
+                Audience audience = computeAudience(snapshot, shot);
+                if (heights != null) {
+                    audience.attenuationMap = heights.compute(shot.x(), shot.y(), shot.z());
+                }
+                SoundMetrics.AUDIENCE_TASK_NANOS.record(System.nanoTime() - start);
+
+                server.execute(() -> {
+                    if (audienceCallback != null) {
+                        audienceCallback.onAudienceReady(shot, audience);
+                    }
+                });
+            });
+        }
+    }
+
+    /**
+     * Coalesces the queued shots and computes their audiences on the calling thread against the given positions,
+     * without terrain attenuation. The Minecraft-free core of {@link #dispatch(MinecraftServer)}, used to drive
+     * the dispatcher without a server.
+     */
+    public static void dispatch(PlayerPositionSnapshot snapshot, AudienceListener listener) {
+        List<Shot> shots = takeShots();
+        for (int i = 0, size = shots.size(); i < size; i++) {
+            Shot shot = shots.get(i);
+            listener.onAudienceReady(shot, computeAudience(snapshot, shot));
+        }
+    }
+
+    /**
+     * @return The shots of this tick, coalesced; empty if no shot was received
+     */
+    private static List<Shot> takeShots() {
+        if (pendingShots.isEmpty()) {
+            return List.of();
+        }
+
+        List<Shot> shots = coalesce(ServerConfig.INSTANCE.getSnapshot());
+        pendingShots.clear();
+        return shots;
+    }
+
+    /**
+     * @return The terrain heights around the shot, or null if its world is not loaded
+     */
+    private static AttenuationMap.Heights captureHeights(MinecraftServer server, Shot shot) {
+        ServerWorld world = server.getWorld(shot.worldKey());
+        if (world == null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        AttenuationMap.Heights heights = AttenuationMap.capture(world, shot.x(), shot.z(), shot.range());
+        SoundMetrics.ATTENUATION_CAPTURE_NANOS.record(System.nanoTime() - start);
+        return heights;
+    }
+
+    /**
+     * Groups the pending shots into clusters. Shots that join a cluster emitted on an earlier tick are dropped,
+     * since its sound is already playing; the rest are merged per cluster. With a cluster distance of 0,
+     * every shot is kept as it is.
+     *
+     * @return The shots to compute audiences for
+     */
+    private static List<Shot> coalesce(ServerConfig.Snapshot config) {
+        double distance = config.getClusterDistance();
+        long windowMs = config.getClusterWindowMs();
+        if (distance <= 0.0) {
+            recentClusters.clear();
+            return new ArrayList<>(pendingShots);
+        }
+
+        long now = pendingShots.get(0).fireTimestamp();
+        for (int i = 1, size = pendingShots.size(); i < size; i++) {
+            now = Math.max(now, pendingShots.get(i).fireTimestamp());
+        }
+
+        // Clusters whose window has run out can no longer take shots
+        int expired = 0;
+        while (expired < recentClusters.size() && recentClusters.get(expired).anchor.fireTimestamp() + windowMs < now) {
+            expired++;
+        }
+        recentClusters.subList(0, expired).clear();
+
+        int previousCount = recentClusters.size();
+        for (int i = 0, size = pendingShots.size(); i < size; i++) {
+            Shot shot = pendingShots.get(i);
+            Cluster cluster = findCluster(shot, distance, windowMs);
+            if (cluster == null) {
+                recentClusters.add(new Cluster(shot));
+            } else {
+                cluster.members.add(shot);
+                SoundMetrics.SHOTS_CLUSTERED.increment();
+            }
+        }
+
+        List<Shot> shots = new ArrayList<>(recentClusters.size() - previousCount);
+        for (int i = previousCount, size = recentClusters.size(); i < size; i++) {
+            Cluster cluster = recentClusters.get(i);
+            shots.add(cluster.merge());
+            // Only the anchor is needed from here on
+            cluster.members.subList(1, cluster.members.size()).clear();
+        }
+        return shots;
+    }
+
+    private static Cluster findCluster(Shot shot, double distance, long windowMs) {
+        for (int i = 0, size = recentClusters.size(); i < size; i++) {
+            Cluster cluster = recentClusters.get(i);
+            if (cluster.accepts(shot, distance, windowMs)) {
+                return cluster;
+            }
+        }
+        return null;
+    }
+
+    private static Audience computeAudience(PlayerPositionSnapshot snapshot, Shot shot) {
+        Audience audience = new Audience();
+        double candidateRange = shot.range() + STALE_POSITION_MARGIN;
+
+        snapshot.forEachNearby(shot.worldKey(), shot.x(), shot.z(), candidateRange, (player, playerId, playerX, playerY, playerZ) -> {
+            double dx = playerX - shot.x();
+            double dy = playerY - shot.y();
+            double dz = playerZ - shot.z();
+            double horizontalDistanceSquared = dx * dx + dz * dz;
+
+            if (horizontalDistanceSquared <= candidateRange * candidateRange) {
+                audience.add(player, playerId, playerX, playerY, playerZ, Math.sqrt(horizontalDistanceSquared),
+                        horizontalDistanceSquared + dy * dy);
+            }
+        });
+        return audience;
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.hyisnoob.railgunsounds.impact;
+
+import io.github.hyisnoob.railgunsounds.OrbitalRailgunSounds;
+import io.github.hyisnoob.railgunsounds.config.ServerConfig;
+import io.github.hyisnoob.railgunsounds.registry.SoundsRegistry;
+import net.minecraft.util.Identifier;
+
+/**
+ * What a listener hears of a shot, depending on how far from the impact they are.
+ * Near listeners get the full, streamed sound; further out, a shorter clip and finally a brief rumble.
+ * Both are small static sounds, so distant listeners do not take one of the few streaming channels.
+ */
+public enum SoundTier {
+    NEAR(SoundsRegistry.RAILGUN_SHOOT_ID, OrbitalRailgunSounds.RAILGUN_SOUND_DURATION_MS),
+    MID(SoundsRegistry.RAILGUN_SHOOT_DISTANT_ID, SoundsRegistry.DISTANT_CLIP_MS),
+    FAR(SoundsRegistry.RAILGUN_RUMBLE_ID, SoundsRegistry.RUMBLE_CLIP_MS);
+
+    public final Identifier soundId;
+    public final long durationMs; // How long the client plays the sound for
+
+    SoundTier(Identifier soundId, long durationMs) {
+        this.soundId = soundId;
+        this.durationMs = durationMs;
+    }
+
+    /**
+     * @param horizontalDistance Distance from the listener to the impact, in blocks
+     */
+    public static SoundTier forDistance(double horizontalDistance, ServerConfig.Snapshot config) {
+        if (horizontalDistance <= config.getNearTierRange()) {
+            return NEAR;
+        }
+        return horizontalDistance <= config.getMidTierRange() ? MID : FAR;
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.hyisnoob.railgunsounds.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntConsumer;
+
+/**
+ * Tick wheel deciding when each player with a live impact state gets re-checked.
+ * Players are identified by entity id. Players without live impacts are never scheduled,
+ * so the wheel does no work while nobody has fired.
+ * Must only be accessed from the server thread.
+ */
+public class AreaCheckScheduler {
+    public static final int MAX_DELAY_TICKS = 40;
+    private static final int WHEEL_SIZE = 64; // Power of two larger than MAX_DELAY_TICKS
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    // Slowest speed assumed for a player, in blocks per tick (sprinting is ~0.28)
+    private static final double MIN_ASSUMED_SPEED = 0.3;
+    // Headroom for players accelerating between two checks
+    private static final double SPEED_SAFETY_FACTOR = 1.5;
+
+    private static final List<IntArrayList> wheel = new ArrayList<>(WHEEL_SIZE);
+    private static final Int2LongOpenHashMap dueTicks = new Int2LongOpenHashMap();
+    private static long currentTick = 0;
+
+    static {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new IntArrayList());
+        }
+    }
+
+    /**
+     * Computes how many ticks can safely pass before a player could have crossed a range boundary.
+     *
+     * @param boundaryDistance Distance (in blocks) from the player to the nearest range boundary
+     * @param speedPerTick The player's observed horizontal speed in blocks per tick
+     * @return A delay between 1 and {@link #MAX_DELAY_TICKS}
+     */
+    public static int computeDelayTicks(double boundaryDistance, double speedPerTick) {
+        double assumedSpeed = Math.max(speedPerTick, MIN_ASSUMED_SPEED) * SPEED_SAFETY_FACTOR;
+        double ticks = Math.floor(boundaryDistance / assumedSpeed);
+        return (int) Math.max(1, Math.min(MAX_DELAY_TICKS, ticks));
+    }
+
+    /**
+     * Schedules a re-check of the player after the given number of ticks.
+     * If the player is already scheduled earlier, the earlier check is kept.
+     */
+    public static void schedule(int playerId, int delayTicks) {
+        long dueTick = currentTick + Math.max(1, Math.min(MAX_DELAY_TICKS, delayTicks));
+
+        if (dueTicks.containsKey(playerId) && dueTicks.get(playerId) <= dueTick) {
+            return;
+        }
+
+        // Any entry left in a later bucket becomes stale and is skipped when drained
+        dueTicks.put(playerId, dueTick);
+        wheel.get((int) (dueTick & WHEEL_MASK)).add(playerId);
+    }
+
+    public static void cancel(int playerId) {
+        dueTicks.remove(playerId);
+        if (dueTicks.isEmpty()) {
+            clearWheel();
+        }
+    }
+
+    /**
+     * @return The tick the wheel was last advanced to
+     */
+    public static long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Advances the wheel to the given tick and visits every player due on it.
+     * The visitor may re-schedule the player it is given.
+     */
+    public static void tick(long tick, IntConsumer visitor) {
+        currentTick = tick;
+        if (dueTicks.isEmpty()) {
+            return;
+        }
+
+        IntArrayList bucket = wheel.get((int) (tick & WHEEL_MASK));
+        if (bucket.isEmpty()) {
+            return;
+        }
+
+        // Re-scheduling always lands in another bucket (1 <= delay < WHEEL_SIZE), so the bucket is stable here
+        for (int i = 0, size = bucket.size(); i < size; i++) {
+            int playerId = bucket.getInt(i);
+            if (dueTicks.containsKey(playerId) && dueTicks.get(playerId) == tick) {
+                dueTicks.remove(playerId);
+                visitor.accept(playerId);
+            }
+        }
+        bucket.clear();
+
+        if (dueTicks.isEmpty()) {
+            // Going idle: drop the stale entries left behind by earlier re-scheduling
+            clearWheel();
+        }
+    }
+
+    /**
+     * Unschedules every player and rewinds the wheel, e.g. when the server stops.
+     */
+    public static void clear() {
+        dueTicks.clear();
+        clearWheel();
+        currentTick = 0;
+    }
+
+    private static void clearWheel() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.get(i).clear();
+        }
+    }
+}
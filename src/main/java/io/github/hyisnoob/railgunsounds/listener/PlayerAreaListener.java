@@ -1,36 +1,45 @@
 package io.github.hyisnoob.railgunsounds.listener;
 
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Consumer;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.BitSet;
+import java.util.List;
 
 import io.github.hyisnoob.railgunsounds.config.ServerConfig;
+import io.github.hyisnoob.railgunsounds.impact.Impact;
+import io.github.hyisnoob.railgunsounds.impact.ImpactRegistry;
+import io.github.hyisnoob.railgunsounds.logger.SoundEventType;
+import io.github.hyisnoob.railgunsounds.logger.SoundLogger;
+import io.github.hyisnoob.railgunsounds.metrics.SoundMetrics;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.server.network.ServerPlayerEntity;
 
+/**
+ * Tracks which laser impacts each player is in range of. Players are keyed by entity id,
+ * which the server keeps when a player respawns. Check results are packed into an int
+ * (see {@link AreaCheckResult}) so the per-player checks do not allocate. Players enter an impact's range
+ * at the sound range but only leave it past a hysteresis band, so moving along the edge does not flap.
+ * A player's state is dropped once every impact they were checked against has expired,
+ * so the number of states is bounded by the audiences of the live impacts.
+ * Must only be accessed from the server thread.
+ */
 public class PlayerAreaListener {
-    private static final Logger LOGGER = LoggerFactory.getLogger("orbital_railgun_sounds");
-    private static final Map<UUID, AreaState> playerStates = new ConcurrentHashMap<>();
-    private static Consumer<AreaChangeEvent> areaChangeCallback = null;
+    private static final Int2ObjectOpenHashMap<AreaState> playerStates = new Int2ObjectOpenHashMap<>();
+    // Reverse of AreaState.trackedImpacts: the ids of the players checked against each impact
+    private static final Int2ObjectOpenHashMap<IntArrayList> impactMembers = new Int2ObjectOpenHashMap<>();
+    private static AreaChangeListener areaChangeCallback = null;
 
     /**
-     * Tracks state for a player in relation to a laser impact area
+     * Tracks state for a player in relation to every live laser impact.
+     * Bits are indexed by {@link Impact#id}; the state object is reused across checks.
      */
     private static class AreaState {
-        boolean isInside;
-        double lastLaserX;
-        double lastLaserZ;
-        long fireTimestamp; // When the railgun was fired (in milliseconds)
-
-        AreaState(boolean isInside, double laserX, double laserZ, long fireTimestamp) {
-            this.isInside = isInside;
-            this.lastLaserX = laserX;
-            this.lastLaserZ = laserZ;
-            this.fireTimestamp = fireTimestamp;
-        }
+        ServerPlayerEntity player; // Latest entity for this id, null for players checked by id only
+        final BitSet trackedImpacts = new BitSet(); // Impacts this player has been checked against
+        final BitSet insideImpacts = new BitSet();  // Impacts whose range the player is currently inside
+        double lastX;
+        double lastZ;
+        long lastCheckTick = -1; // Used to estimate the player's speed between checks
+        double speed;            // Horizontal speed observed at the last check, in blocks per tick
     }
 
     /**
@@ -43,10 +52,21 @@ public class PlayerAreaListener {
      * @return true if the player is inside the range, false otherwise
      */
     public static boolean isPlayerInRange(ServerPlayerEntity player, double laserX, double laserZ) {
+        return isPlayerInRange(player.getX(), player.getZ(), laserX, laserZ);
+    }
+
+    /**
+     * Checks if a position is within the sound range of a laser impact location
+     * (the inner edge of the hysteresis band, where players enter).
+     * 
+     * @param playerX The X coordinate of the player
+     * @param playerZ The Z coordinate of the player
+     * @param laserX The X coordinate of the laser impact
+     * @param laserZ The Z coordinate of the laser impact
+     * @return true if the position is inside the range, false otherwise
+     */
+    public static boolean isPlayerInRange(double playerX, double playerZ, double laserX, double laserZ) {
         double soundRange = ServerConfig.INSTANCE.getSoundRange();
-        
-        double playerX = player.getX();
-        double playerZ = player.getZ();
 
         double dx = playerX - laserX;
         double dz = playerZ - laserZ;
@@ -57,138 +77,418 @@ public class PlayerAreaListener {
     }
 
     /**
-     * Handles player area check and tracks state changes (entering/leaving area).
-     * Returns information about whether the player's state changed.
+     * Handles player area check against a single impact and tracks state changes (entering/leaving area).
+     * Returns information about whether the player's state changed for that impact.
      * 
      * @param player The player to check
-     * @param laserX The X coordinate of the laser impact
-     * @param laserZ The Z coordinate of the laser impact
-     * @return An AreaCheckResult containing state information
+     * @param impact The laser impact to check against
+     * @return The packed {@link AreaCheckResult} flags
      */
-    public static AreaCheckResult handlePlayerAreaCheck(ServerPlayerEntity player, double laserX, double laserZ) {
-        return handlePlayerAreaCheck(player, laserX, laserZ, System.currentTimeMillis());
+    public static int handlePlayerAreaCheck(ServerPlayerEntity player, Impact impact) {
+        double distance = horizontalDistance(player.getX(), player.getZ(), impact.x, impact.z);
+        return handlePlayerAreaCheck(player, player.getX(), player.getY(), player.getZ(), distance, impact);
     }
-    
+
     /**
-     * Handles player area check and tracks state changes (entering/leaving area) with timestamp.
-     * Returns information about whether the player's state changed.
-     * 
-     * @param player The player to check
-     * @param laserX The X coordinate of the laser impact
-     * @param laserZ The Z coordinate of the laser impact
-     * @param fireTimestamp The timestamp when the railgun was fired (in milliseconds)
-     * @return An AreaCheckResult containing state information
+     * Handles an area check whose distance was already computed, e.g. by a worker against a position snapshot.
+     * The player is assumed to be in the impact's world.
+     *
+     * @param playerX The X coordinate the distance was computed from
+     * @param playerY The Y coordinate, checked against the vertical range if one is set
+     * @param playerZ The Z coordinate the distance was computed from
+     * @param horizontalDistance The horizontal distance from that position to the impact
+     * @return The packed {@link AreaCheckResult} flags
      */
-    public static AreaCheckResult handlePlayerAreaCheck(ServerPlayerEntity player, double laserX, double laserZ, long fireTimestamp) {
-        UUID playerId = player.getUuid();
-        boolean currentlyInside = isPlayerInRange(player, laserX, laserZ);
+    public static int handlePlayerAreaCheck(ServerPlayerEntity player, double playerX, double playerY, double playerZ,
+                                            double horizontalDistance, Impact impact) {
+        int result = checkArea(player.getId(), playerX, playerZ, horizontalDistance, Math.abs(playerY - impact.y),
+                impact.isIn(player.getWorld()), impact);
+        playerStates.get(player.getId()).player = player;
+
+        if (AreaCheckResult.isNewLocation(result)) {
+            SoundLogger.log(SoundEventType.TRACK, player.getId(), impact.id, null, impact.x, impact.z, 0.0);
+        }
         
-        AreaState previousState = playerStates.get(playerId);
-        boolean wasInside = previousState != null && previousState.isInside;
+        return result;
+    }
+
+    /**
+     * Handles an area check for a player identified only by id and position.
+     * This is the Minecraft-free core of {@link #handlePlayerAreaCheck(ServerPlayerEntity, Impact)};
+     * the player is assumed to be in the impact's world, at its height.
+     * 
+     * @param playerId The entity id of the player to check
+     * @param playerX The X coordinate of the player
+     * @param playerZ The Z coordinate of the player
+     * @param impact The laser impact to check against
+     * @return The packed {@link AreaCheckResult} flags
+     */
+    public static int handlePlayerAreaCheck(int playerId, double playerX, double playerZ, Impact impact) {
+        return checkArea(playerId, playerX, playerZ, horizontalDistance(playerX, playerZ, impact.x, impact.z), 0.0, true, impact);
+    }
+
+    private static int checkArea(int playerId, double playerX, double playerZ, double distance, double verticalDistance,
+                                 boolean sameWorld, Impact impact) {
+        ServerConfig.Snapshot config = ServerConfig.INSTANCE.getSnapshot();
+
+        AreaState state = playerStates.get(playerId);
+        if (state == null) {
+            state = new AreaState();
+            playerStates.put(playerId, state);
+        }
+        int result = updateArea(playerId, state, distance, verticalDistance, sameWorld, impact, config);
+
+        // Distance to an impact in another world means nothing; re-check at a relaxed pace until the player returns
+        boolean currentlyInside = AreaCheckResult.isInside(result);
+        scheduleRecheck(playerId, observeSpeed(state, playerX, playerZ), sameWorld
+                ? distanceToBand(distance, verticalDistance, currentlyInside, config)
+                : config.getSoundRange());
+        return result;
+    }
+
+    /**
+     * Updates the player's state for one impact without scheduling their next check.
+     *
+     * @return The packed {@link AreaCheckResult} flags
+     */
+    private static int updateArea(int playerId, AreaState state, double distance, double verticalDistance,
+                                  boolean sameWorld, Impact impact, ServerConfig.Snapshot config) {
+        boolean wasInside = state.insideImpacts.get(impact.id);
+        boolean isNewLocation = !state.trackedImpacts.get(impact.id);
+        boolean currentlyInside = sameWorld && isInsideBand(distance, verticalDistance, wasInside, config);
 
-        boolean isNewLocation = previousState == null || 
-                                previousState.lastLaserX != laserX || 
-                                previousState.lastLaserZ != laserZ;
+        if (isNewLocation) {
+            impactMembers.computeIfAbsent(impact.id, id -> new IntArrayList()).add(playerId);
+        }
+        state.trackedImpacts.set(impact.id);
+        state.insideImpacts.set(impact.id, currentlyInside);
+        if (currentlyInside != wasInside) {
+            (currentlyInside ? SoundMetrics.ENTERS : SoundMetrics.LEAVES).increment();
+        }
 
-        // Use the existing timestamp if this is the same location, otherwise use the new one
-        long timestamp = isNewLocation ? fireTimestamp : previousState.fireTimestamp;
+        return AreaCheckResult.pack(currentlyInside, wasInside, isNewLocation);
+    }
 
-        playerStates.put(playerId, new AreaState(currentlyInside, laserX, laserZ, timestamp));
+    /**
+     * @return The number of players holding area state
+     */
+    public static int getTrackedPlayerCount() {
+        return playerStates.size();
+    }
 
-        AreaCheckResult result = new AreaCheckResult();
-        result.isInside = currentlyInside;
-        result.wasInside = wasInside;
-        result.isNewLocation = isNewLocation;
-        result.fireTimestamp = timestamp;
+    /**
+     * Handles a movement hint from the client. Picks up live impacts the player has walked into
+     * without being tracked yet, and moves the next check of already tracked impacts up to the next tick.
+     */
+    public static void requestRecheck(ServerPlayerEntity player) {
+        AreaState state = playerStates.get(player.getId());
 
-        if (ServerConfig.INSTANCE.isDebugMode()) {
-            if (isNewLocation) {
-                LOGGER.info("New laser location: ({}, {}) for player {} at time {}", laserX, laserZ, player.getName().getString(), timestamp);
+        List<Impact> impacts = ImpactRegistry.getActiveImpacts(player.getWorld().getRegistryKey());
+        for (int i = 0, size = impacts.size(); i < size; i++) {
+            Impact impact = impacts.get(i);
+            boolean tracked = state != null && state.trackedImpacts.get(impact.id);
+
+            if (!tracked && isPlayerInRange(player, impact.x, impact.z)) {
+                int result = handlePlayerAreaCheck(player, impact);
+                state = playerStates.get(player.getId());
+
+                if (areaChangeCallback != null && AreaCheckResult.hasStateChanged(result)) {
+                    areaChangeCallback.onAreaChange(player, result, impact);
+                }
             }
-            if (!wasInside && currentlyInside) {
-                long elapsedMs = System.currentTimeMillis() - timestamp;
-                LOGGER.info("Player {} entered sound range at ({}, {}) - elapsed: {}ms", 
-                    player.getName().getString(), laserX, laserZ, elapsedMs);
-            } else if (wasInside && !currentlyInside) {
-                LOGGER.info("Player {} left sound range at ({}, {})", 
-                    player.getName().getString(), laserX, laserZ);
+        }
+
+        if (state != null && !state.trackedImpacts.isEmpty()) {
+            AreaCheckScheduler.schedule(player.getId(), 1);
+        }
+    }
+
+    /**
+     * Forgets an expired impact for the players checked against it so its id can be reused.
+     * Players left without any live impact lose their state and are no longer re-checked.
+     */
+    public static void onImpactExpired(int impactId) {
+        IntArrayList members = impactMembers.remove(impactId);
+        if (members == null) {
+            return;
+        }
+
+        for (int i = 0, size = members.size(); i < size; i++) {
+            int playerId = members.getInt(i);
+            AreaState state = playerStates.get(playerId);
+            if (state == null) {
+                continue;
+            }
+
+            state.trackedImpacts.clear(impactId);
+            state.insideImpacts.clear(impactId);
+            if (state.trackedImpacts.isEmpty()) {
+                playerStates.remove(playerId);
+                AreaCheckScheduler.cancel(playerId);
             }
         }
-        
-        return result;
     }
 
     /**
      * Clears the state for a specific player (useful when player disconnects)
      */
-    public static void clearPlayerState(UUID playerId) {
-        playerStates.remove(playerId);
+    public static void clearPlayerState(int playerId) {
+        AreaState state = playerStates.remove(playerId);
+        AreaCheckScheduler.cancel(playerId);
+        if (state == null) {
+            return;
+        }
+
+        BitSet tracked = state.trackedImpacts;
+        for (int impactId = tracked.nextSetBit(0); impactId >= 0; impactId = tracked.nextSetBit(impactId + 1)) {
+            IntArrayList members = impactMembers.get(impactId);
+            if (members != null) {
+                members.rem(playerId);
+            }
+        }
     }
     
+    /**
+     * Clears the state of every player, e.g. when the server stops.
+     */
+    public static void clearAllPlayerStates() {
+        playerStates.clear();
+        impactMembers.clear();
+        AreaCheckScheduler.clear();
+    }
+
+    /**
+     * Points the tracked state at the entity that replaced a respawned player.
+     */
+    public static void onPlayerRespawned(ServerPlayerEntity newPlayer) {
+        AreaState state = playerStates.get(newPlayer.getId());
+        if (state != null) {
+            state.player = newPlayer;
+        }
+    }
+
     /**
      * Sets a callback to be invoked when a player's area state changes.
      */
-    public static void setAreaChangeCallback(Consumer<AreaChangeEvent> callback) {
+    public static void setAreaChangeCallback(AreaChangeListener callback) {
         areaChangeCallback = callback;
     }
+
+    /**
+     * Re-checks a player due in {@link AreaCheckScheduler}. Ids checked without an entity are ignored.
+     */
+    public static void checkPlayerPosition(int playerId) {
+        AreaState state = playerStates.get(playerId);
+        if (state != null && state.player != null && !state.player.isRemoved()) {
+            checkPlayerPosition(state.player);
+        }
+    }
     
     /**
-     * Periodically checks if a player's position has changed relative to tracked laser locations.
-     * This is called from a tick event to detect when players move out of range.
+     * Checks if a player's position has changed relative to every tracked laser impact.
+     * This is called by {@link AreaCheckScheduler} when the player is due, and schedules the next check
+     * based on how close the player is to a range boundary. Players without live impacts are not re-scheduled.
      */
     public static void checkPlayerPosition(ServerPlayerEntity player) {
-        UUID playerId = player.getUuid();
+        recheck(player.getId(), player.getX(), player.getZ(), player, null);
+    }
+
+    /**
+     * Re-checks a player identified only by id and position; the Minecraft-free core of
+     * {@link #checkPlayerPosition(ServerPlayerEntity)}, used to drive the listener without a server.
+     * The player is assumed to be in the world of every impact they track.
+     *
+     * @param listener Receives the state changes found, instead of the callback set with {@link #setAreaChangeCallback}
+     */
+    public static void checkPlayerPosition(int playerId, double playerX, double playerZ, PlayerIdAreaChangeListener listener) {
+        recheck(playerId, playerX, playerZ, null, listener);
+    }
+
+    private static void recheck(int playerId, double playerX, double playerZ, ServerPlayerEntity player,
+                                PlayerIdAreaChangeListener idListener) {
         AreaState state = playerStates.get(playerId);
         
         if (state == null) {
             return;
         }
 
-        boolean currentlyInside = isPlayerInRange(player, state.lastLaserX, state.lastLaserZ);
+        ServerConfig.Snapshot config = ServerConfig.INSTANCE.getSnapshot();
+        // Measured before the loop, which would otherwise see the position it just recorded
+        double speed = observeSpeed(state, playerX, playerZ);
+        double nearestBoundary = Double.MAX_VALUE;
 
-        if (state.isInside != currentlyInside) {
-            AreaCheckResult result = handlePlayerAreaCheck(player, state.lastLaserX, state.lastLaserZ);
-            
-            if (areaChangeCallback != null && result.hasStateChanged()) {
-                areaChangeCallback.accept(new AreaChangeEvent(player, result, state.lastLaserX, state.lastLaserZ));
+        BitSet tracked = state.trackedImpacts;
+        for (int impactId = tracked.nextSetBit(0); impactId >= 0; impactId = tracked.nextSetBit(impactId + 1)) {
+            Impact impact = ImpactRegistry.get(impactId);
+            if (impact == null) {
+                continue;
             }
+
+            boolean sameWorld = player == null || impact.isIn(player.getWorld());
+            double distance = horizontalDistance(playerX, playerZ, impact.x, impact.z);
+            double verticalDistance = player == null ? 0.0 : Math.abs(player.getY() - impact.y);
+            boolean wasInside = state.insideImpacts.get(impactId);
+            boolean currentlyInside = sameWorld && isInsideBand(distance, verticalDistance, wasInside, config);
+            nearestBoundary = Math.min(nearestBoundary, sameWorld
+                    ? distanceToBand(distance, verticalDistance, currentlyInside, config)
+                    : config.getSoundRange());
+
+            if (wasInside != currentlyInside) {
+                int result = updateArea(playerId, state, distance, verticalDistance, sameWorld, impact, config);
+                if (!AreaCheckResult.hasStateChanged(result)) {
+                    continue;
+                }
+
+                if (player != null && areaChangeCallback != null) {
+                    areaChangeCallback.onAreaChange(player, result, impact);
+                } else if (idListener != null) {
+                    idListener.onAreaChange(playerId, result, impact);
+                }
+            }
+        }
+
+        if (nearestBoundary != Double.MAX_VALUE) {
+            scheduleRecheck(playerId, speed, nearestBoundary);
+        }
+    }
+
+    /**
+     * Records the player's position and returns the speed observed since the previous check. Server-side
+     * player velocity is not reliable (movement is client-driven), so the speed is derived from the change
+     * in position instead. Further checks on the same tick keep the speed measured by the first one.
+     */
+    private static double observeSpeed(AreaState state, double playerX, double playerZ) {
+        long tick = AreaCheckScheduler.getCurrentTick();
+        if (tick == state.lastCheckTick) {
+            return state.speed;
+        }
+
+        if (state.lastCheckTick >= 0 && tick > state.lastCheckTick) {
+            double dx = playerX - state.lastX;
+            double dz = playerZ - state.lastZ;
+            state.speed = Math.sqrt(dx * dx + dz * dz) / (tick - state.lastCheckTick);
+        } else {
+            state.speed = 0.0;
+        }
+
+        state.lastX = playerX;
+        state.lastZ = playerZ;
+        state.lastCheckTick = tick;
+        return state.speed;
+    }
+
+    /**
+     * Schedules the next check for the player from the distance to the nearest range boundary and their speed.
+     */
+    private static void scheduleRecheck(int playerId, double speed, double boundaryDistance) {
+        AreaCheckScheduler.schedule(playerId, AreaCheckScheduler.computeDelayTicks(boundaryDistance, speed));
+    }
+
+    /**
+     * Range test with hysteresis: a player outside enters at the sound range, a player inside only leaves
+     * beyond the band around it. The vertical range, if set, uses the same band.
+     */
+    private static boolean isInsideBand(double horizontalDistance, double verticalDistance, boolean wasInside,
+                                        ServerConfig.Snapshot config) {
+        double band = wasInside ? config.getHysteresisBand() : 0.0;
+        if (config.getVerticalRange() > 0.0 && verticalDistance > config.getVerticalRange() + band) {
+            return false;
         }
+        return horizontalDistance <= config.getSoundRange() + band;
     }
 
     /**
-         * Event data for area state changes
+     * @return How far the player has to move before {@link #isInsideBand} can change, the inner edge for
+     * players outside and the outer edge for players inside
+     */
+    private static double distanceToBand(double horizontalDistance, double verticalDistance, boolean inside,
+                                         ServerConfig.Snapshot config) {
+        double band = inside ? config.getHysteresisBand() : 0.0;
+        double boundary = Math.abs(config.getSoundRange() + band - horizontalDistance);
+        if (config.getVerticalRange() > 0.0) {
+            boundary = Math.min(boundary, Math.abs(config.getVerticalRange() + band - verticalDistance));
+        }
+        return boundary;
+    }
+
+    private static double horizontalDistance(double playerX, double playerZ, double laserX, double laserZ) {
+        double dx = playerX - laserX;
+        double dz = playerZ - laserZ;
+        return Math.sqrt(dx * dx + dz * dz);
+    }
+
+    /**
+     * Receives area state changes found while re-checking players.
+     */
+    @FunctionalInterface
+    public interface AreaChangeListener {
+        /**
+         * @param result The packed {@link AreaCheckResult} flags of the check that found the change
          */
-        public record AreaChangeEvent(ServerPlayerEntity player, AreaCheckResult result, double laserX, double laserZ) {
+        void onAreaChange(ServerPlayerEntity player, int result, Impact impact);
     }
 
     /**
-     * Result of an area check, containing state information
+     * Receives area state changes of players re-checked by id only.
      */
-    public static class AreaCheckResult {
-        public boolean isInside;
-        public boolean wasInside;
-        public boolean isNewLocation;
-        public long fireTimestamp; // When the railgun was fired
-        
+    @FunctionalInterface
+    public interface PlayerIdAreaChangeListener {
+        /**
+         * @param result The packed {@link AreaCheckResult} flags of the check that found the change
+         */
+        void onAreaChange(int playerId, int result, Impact impact);
+    }
+
+    /**
+     * Flags of an area check, packed into an int so checks do not allocate a result object.
+     * The fire timestamp is read from the impact itself.
+     */
+    public static final class AreaCheckResult {
+        public static final int INSIDE = 1;
+        public static final int WAS_INSIDE = 1 << 1;
+        public static final int NEW_LOCATION = 1 << 2;
+
+        private AreaCheckResult() {
+        }
+
+        public static int pack(boolean isInside, boolean wasInside, boolean isNewLocation) {
+            return (isInside ? INSIDE : 0) | (wasInside ? WAS_INSIDE : 0) | (isNewLocation ? NEW_LOCATION : 0);
+        }
+
+        public static boolean isInside(int result) {
+            return (result & INSIDE) != 0;
+        }
+
+        public static boolean wasInside(int result) {
+            return (result & WAS_INSIDE) != 0;
+        }
+
+        /**
+         * @return true if this was the first check of the player against the impact
+         */
+        public static boolean isNewLocation(int result) {
+            return (result & NEW_LOCATION) != 0;
+        }
+
         /**
          * @return true if the player just entered the area
          */
-        public boolean hasEntered() {
-            return isInside && !wasInside;
+        public static boolean hasEntered(int result) {
+            return (result & (INSIDE | WAS_INSIDE)) == INSIDE;
         }
-        
+
         /**
          * @return true if the player just left the area
          */
-        public boolean hasLeft() {
-            return !isInside && wasInside;
+        public static boolean hasLeft(int result) {
+            return (result & (INSIDE | WAS_INSIDE)) == WAS_INSIDE;
         }
-        
+
         /**
          * @return true if the player's state changed
          */
-        public boolean hasStateChanged() {
-            return hasEntered() || hasLeft();
+        public static boolean hasStateChanged(int result) {
+            return hasEntered(result) || hasLeft(result);
         }
     }
 }
@@ -0,0 +1,132 @@
+package io.github.hyisnoob.railgunsounds.logger;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of structured sound events, stored in primitive arrays so recording neither allocates
+ * nor formats anything. Writers never block: once the ring is full the oldest events are overwritten.
+ *
+ * <p>Every event gets an increasing sequence number. Each slot carries the sequence of the event it holds,
+ * which readers check before and after copying the fields (a seqlock), so a reader never sees a half-written
+ * or overwritten event, it just skips it.
+ */
+public class SoundEventBuffer {
+    private static final long WRITING = -1L;
+
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLongArray slotSequences;
+    private final long[] timestamps;
+    private final byte[] types;
+    private final int[] playerIds;
+    private final int[] impactIds;
+    private final int[] soundIds;
+    private final double[] xs;
+    private final double[] zs;
+    private final double[] values;
+
+    /**
+     * Reusable copy of one event, filled by {@link #read(long, SoundEvent)}.
+     */
+    public static class SoundEvent {
+        public long sequence;
+        public long timestamp;
+        public SoundEventType type;
+        public int playerId;
+        public int impactId;
+        public int soundId;
+        public double x;
+        public double z;
+        public double value;
+    }
+
+    /**
+     * @param capacity Number of events kept; rounded up to a power of two
+     */
+    public SoundEventBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.slotSequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slotSequences.set(i, WRITING);
+        }
+        this.timestamps = new long[size];
+        this.types = new byte[size];
+        this.playerIds = new int[size];
+        this.impactIds = new int[size];
+        this.soundIds = new int[size];
+        this.xs = new double[size];
+        this.zs = new double[size];
+        this.values = new double[size];
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Records an event, overwriting the oldest one when the ring is full.
+     */
+    public void record(long timestamp, SoundEventType type, int playerId, int impactId, int soundId,
+                       double x, double z, double value) {
+        long sequence = nextSequence.getAndIncrement();
+        int slot = (int) (sequence & mask);
+
+        slotSequences.set(slot, WRITING);
+        VarHandle.storeStoreFence();
+        timestamps[slot] = timestamp;
+        types[slot] = (byte) type.ordinal();
+        playerIds[slot] = playerId;
+        impactIds[slot] = impactId;
+        soundIds[slot] = soundId;
+        xs[slot] = x;
+        zs[slot] = z;
+        values[slot] = value;
+        slotSequences.setRelease(slot, sequence);
+    }
+
+    /**
+     * @return The sequence the next recorded event will get
+     */
+    public long getNextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * @return The oldest sequence that may still be in the ring
+     */
+    public long getOldestSequence() {
+        return Math.max(0L, nextSequence.get() - capacity());
+    }
+
+    /**
+     * Copies the event with the given sequence.
+     *
+     * @return false if that event was overwritten or is still being written
+     */
+    public boolean read(long sequence, SoundEvent into) {
+        int slot = (int) (sequence & mask);
+        if (slotSequences.getAcquire(slot) != sequence) {
+            return false;
+        }
+
+        into.sequence = sequence;
+        into.timestamp = timestamps[slot];
+        int type = types[slot];
+        into.playerId = playerIds[slot];
+        into.impactId = impactIds[slot];
+        into.soundId = soundIds[slot];
+        into.x = xs[slot];
+        into.z = zs[slot];
+        into.value = values[slot];
+
+        VarHandle.loadLoadFence();
+        if (slotSequences.get(slot) != sequence) {
+            return false;
+        }
+        into.type = SoundEventType.byOrdinal(type);
+        return true;
+    }
+}
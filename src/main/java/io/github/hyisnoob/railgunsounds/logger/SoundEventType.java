@@ -0,0 +1,35 @@
+package io.github.hyisnoob.railgunsounds.logger;
+
+/**
+ * Kinds of entries in the sound event log. Each kind gives its own meaning to the event's value.
+ */
+public enum SoundEventType {
+    /** A railgun impact was registered; value is the sound range */
+    SHOT("range"),
+    /** A sound was queued for a player in range of a shot; value is the squared distance */
+    PLAY("distance"),
+    /** A player was checked against an impact for the first time */
+    TRACK(null),
+    /** A player entered the range of an impact; value is the time since the shot in ms */
+    ENTER("elapsedMs"),
+    /** A player entered the range after the sound had ended; value is the time since the shot in ms */
+    ENDED("elapsedMs"),
+    /** A player left the range of an impact */
+    LEAVE(null),
+    /** A stop command was queued for a player */
+    STOP(null),
+    /** A disconnected player's state was cleared */
+    CLEARED(null);
+
+    private static final SoundEventType[] VALUES = values();
+
+    final String valueLabel;
+
+    SoundEventType(String valueLabel) {
+        this.valueLabel = valueLabel;
+    }
+
+    static SoundEventType byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
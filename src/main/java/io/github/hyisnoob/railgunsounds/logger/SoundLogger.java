@@ -1,19 +1,190 @@
 package io.github.hyisnoob.railgunsounds.logger;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.github.hyisnoob.railgunsounds.config.ServerConfig;
-import net.minecraft.util.math.BlockPos;
+import io.github.hyisnoob.railgunsounds.util.BackgroundExecutor;
+import net.minecraft.registry.Registries;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.sound.SoundEvent;
 
+/**
+ * Debug log of sound events. While debug mode is on, events are recorded into a {@link SoundEventBuffer}
+ * as primitives; a background drainer formats them and appends them to {@link #EVENT_LOG} once a second.
+ * With debug mode off, recording costs a single volatile read.
+ */
 public class SoundLogger {
     private static final Logger LOGGER = LoggerFactory.getLogger("orbital_railgun_sounds");
+    private static final Path EVENT_LOG = Paths.get("logs", "orbital-railgun-sounds-events.log");
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final long DRAIN_INTERVAL_MS = 1000L;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final SoundEventBuffer BUFFER = new SoundEventBuffer(BUFFER_CAPACITY);
+    // Names are captured once on join, so events can be formatted off the server thread
+    private static final Map<Integer, String> playerNames = new ConcurrentHashMap<>();
+    private static ScheduledFuture<?> drainer;
+    private static long drainedUpTo = 0L; // Only touched on the background thread
 
-    public static void logSoundEvent(String soundName, BlockPos location, double range) {
-        if (ServerConfig.INSTANCE.isDebugMode()) {
-            LOGGER.info("Sound Event: {} | Location: {} | Range: {}", soundName, location, range);
+    public static boolean isEnabled() {
+        return ServerConfig.INSTANCE.isDebugMode();
+    }
+
+    /**
+     * Records an event if debug mode is on. Does not allocate or format anything.
+     *
+     * @param playerId Entity id of the player, or -1
+     * @param impactId Id of the impact, or -1
+     * @param sound The sound involved, or null
+     * @param value Meaning depends on the type, see {@link SoundEventType}
+     */
+    public static void log(SoundEventType type, int playerId, int impactId, SoundEvent sound,
+                           double x, double z, double value) {
+        if (isEnabled()) {
+            int soundId = sound != null ? Registries.SOUND_EVENT.getRawId(sound) : -1;
+            BUFFER.record(System.currentTimeMillis(), type, playerId, impactId, soundId, x, z, value);
         }
     }
-}
 
+    public static void rememberPlayer(ServerPlayerEntity player) {
+        playerNames.put(player.getId(), player.getName().getString());
+    }
+
+    /**
+     * Forgets a player's name once the drainer has had the chance to write their last events.
+     */
+    public static void forgetPlayer(int playerId) {
+        BackgroundExecutor.schedule(() -> playerNames.remove(playerId), DRAIN_INTERVAL_MS * 2, TimeUnit.MILLISECONDS);
+    }
 
+    public static synchronized void startDrainer() {
+        if (drainer == null) {
+            drainer = BackgroundExecutor.scheduleAtFixedRate(SoundLogger::drain,
+                    DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the periodic drainer after writing out what is left in the buffer.
+     */
+    public static synchronized void stopDrainer() {
+        if (drainer != null) {
+            drainer.cancel(false);
+            drainer = null;
+            BackgroundExecutor.execute(SoundLogger::drain);
+        }
+    }
+
+    /**
+     * Writes every event still in the buffer to a new file in the logs folder, on the background thread.
+     *
+     * @param onDone Receives a summary once the file is written
+     */
+    public static void dump(Consumer<String> onDone) {
+        BackgroundExecutor.execute(() -> {
+            Path file = Paths.get("logs", "orbital-railgun-sounds-dump-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".log");
+            long to = BUFFER.getNextSequence();
+            try {
+                int written = writeEvents(file, BUFFER.getOldestSequence(), to, false);
+                onDone.accept("Dumped " + written + " sound events to " + file);
+            } catch (IOException e) {
+                LOGGER.error("Failed to dump sound events: {}", e.getMessage());
+                onDone.accept("Failed to dump sound events: " + e.getMessage());
+            }
+        });
+    }
+
+    private static void drain() {
+        long to = BUFFER.getNextSequence();
+        if (to == drainedUpTo) {
+            return;
+        }
+
+        long from = drainedUpTo;
+        drainedUpTo = to;
+        try {
+            writeEvents(EVENT_LOG, from, to, true);
+        } catch (IOException e) {
+            LOGGER.error("Failed to write sound events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return The number of events written
+     */
+    private static int writeEvents(Path file, long from, long to, boolean append) throws IOException {
+        Path parentDir = file.getParent();
+        if (parentDir != null) {
+            Files.createDirectories(parentDir);
+        }
+
+        SoundEventBuffer.SoundEvent event = new SoundEventBuffer.SoundEvent();
+        StringBuilder line = new StringBuilder(128);
+        int written = 0;
+        long skipped = 0;
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long start = Math.max(from, BUFFER.getOldestSequence());
+            skipped += start - from;
+
+            for (long sequence = start; sequence < to; sequence++) {
+                if (!BUFFER.read(sequence, event)) {
+                    // Overwritten by newer events before it could be written out
+                    skipped++;
+                    continue;
+                }
+                line.setLength(0);
+                format(event, line);
+                writer.write(line.append(System.lineSeparator()).toString());
+                written++;
+            }
+
+            if (skipped > 0) {
+                writer.write("... " + skipped + " events dropped (buffer full)" + System.lineSeparator());
+            }
+        }
+        return written;
+    }
+
+    private static void format(SoundEventBuffer.SoundEvent event, StringBuilder line) {
+        line.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(event.timestamp), ZoneId.systemDefault()).format(TIME_FORMAT))
+                .append(' ').append(event.type);
+
+        if (event.playerId >= 0) {
+            line.append(" player=").append(playerNames.getOrDefault(event.playerId, "#" + event.playerId));
+        }
+        if (event.impactId >= 0) {
+            line.append(" impact=").append(event.impactId);
+        }
+        if (event.soundId >= 0) {
+            SoundEvent sound = Registries.SOUND_EVENT.get(event.soundId);
+            line.append(" sound=").append(sound != null ? sound.getId() : "#" + event.soundId);
+        }
+        line.append(String.format(" at=(%.1f, %.1f)", event.x, event.z));
+
+        if (event.type.valueLabel != null) {
+            double value = event.type == SoundEventType.PLAY ? Math.sqrt(event.value) : event.value;
+            line.append(' ').append(event.type.valueLabel).append('=').append(String.format("%.1f", value));
+        }
+    }
+}
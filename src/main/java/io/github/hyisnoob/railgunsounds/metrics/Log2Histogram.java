@@ -0,0 +1,71 @@
+package io.github.hyisnoob.railgunsounds.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram with power-of-two buckets: bucket {@code i} counts values in {@code [2^(i-1), 2^i)}.
+ * Recording is a few atomic adds, so it can be used on the server thread; percentiles are
+ * only accurate to within a factor of two, which is enough to spot a slow path.
+ */
+public class Log2Histogram {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0L);
+
+    public void record(long value) {
+        long clamped = Math.max(0L, value);
+        buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(clamped));
+        count.increment();
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param fraction Between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @return The upper bound of the bucket holding the percentile, capped at the largest recorded value
+     */
+    public long getPercentile(double fraction) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0L;
+        }
+
+        long target = (long) Math.ceil(fraction * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                long upperBound = (1L << i) - 1; // Wraps to Long.MAX_VALUE for the last bucket
+                return Math.min(upperBound, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0L);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
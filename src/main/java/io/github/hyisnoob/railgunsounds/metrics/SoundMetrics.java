@@ -0,0 +1,171 @@
+package io.github.hyisnoob.railgunsounds.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.hyisnoob.railgunsounds.util.BackgroundExecutor;
+
+/**
+ * Counters and histograms describing what the sound subsystem costs on a live server.
+ * Recording is thread-safe and cheap enough for the server thread; gauges (map sizes) are sampled
+ * on the server thread once a second, so reports can be built on any thread.
+ */
+public class SoundMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger("orbital_railgun_sounds");
+    private static final Path METRICS_FILE = Paths.get("logs", "orbital-railgun-sounds-metrics.log");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Counters
+    public static final LongAdder SHOTS_RECEIVED = new LongAdder();
+    public static final LongAdder SHOTS_MERGED = new LongAdder();
+    public static final LongAdder SHOTS_CLUSTERED = new LongAdder();
+    public static final LongAdder SHOT_PACKETS_REJECTED = new LongAdder();
+    public static final LongAdder PLAYERS_SCANNED = new LongAdder();
+    public static final LongAdder ENTERS = new LongAdder();
+    public static final LongAdder LEAVES = new LongAdder();
+    public static final LongAdder BATCH_PACKETS_SENT = new LongAdder();
+    public static final LongAdder PLAY_COMMANDS_SENT = new LongAdder();
+    public static final LongAdder STOP_COMMANDS_SENT = new LongAdder();
+    public static final LongAdder AREA_CHECKS_RECEIVED = new LongAdder();
+    public static final LongAdder AREA_CHECKS_DROPPED = new LongAdder();
+
+    // Histograms
+    public static final Log2Histogram PLAYERS_PER_SHOT = new Log2Histogram();
+    public static final Log2Histogram APPLY_SHOT_NANOS = new Log2Histogram();
+    public static final Log2Histogram AUDIENCE_TASK_NANOS = new Log2Histogram();
+    public static final Log2Histogram ATTENUATION_CAPTURE_NANOS = new Log2Histogram(); // Server thread, part of the end-of-tick cost
+    public static final Log2Histogram AREA_CHECK_TASK_NANOS = new Log2Histogram();
+    public static final Log2Histogram RECHECK_SWEEP_NANOS = new Log2Histogram();
+    public static final Log2Histogram END_TICK_NANOS = new Log2Histogram();
+
+    // Gauges, written by sampleGauges on the server thread
+    private static volatile int trackedPlayers;
+    private static volatile int liveImpacts;
+    private static volatile double shotsPerSecond;
+    private static long lastShotTotal;
+    private static long lastSampleNanos = System.nanoTime();
+    private static long startedAtNanos = System.nanoTime();
+
+    private static ScheduledFuture<?> fileWriter;
+    private static int fileIntervalSeconds;
+
+    /**
+     * Samples the gauges and the shot rate. Called once a second from the server thread.
+     */
+    public static void sampleGauges(int trackedPlayerCount, int liveImpactCount) {
+        long now = System.nanoTime();
+        long shots = SHOTS_RECEIVED.sum();
+        double seconds = (now - lastSampleNanos) / 1_000_000_000.0;
+
+        shotsPerSecond = seconds > 0 ? (shots - lastShotTotal) / seconds : 0.0;
+        lastShotTotal = shots;
+        lastSampleNanos = now;
+        trackedPlayers = trackedPlayerCount;
+        liveImpacts = liveImpactCount;
+    }
+
+    public static void reset() {
+        for (LongAdder counter : new LongAdder[] {SHOTS_RECEIVED, SHOTS_MERGED, SHOTS_CLUSTERED, SHOT_PACKETS_REJECTED, PLAYERS_SCANNED, ENTERS, LEAVES, BATCH_PACKETS_SENT,
+                PLAY_COMMANDS_SENT, STOP_COMMANDS_SENT, AREA_CHECKS_RECEIVED, AREA_CHECKS_DROPPED}) {
+            counter.reset();
+        }
+        for (Log2Histogram histogram : new Log2Histogram[] {PLAYERS_PER_SHOT, APPLY_SHOT_NANOS, AUDIENCE_TASK_NANOS,
+                ATTENUATION_CAPTURE_NANOS, AREA_CHECK_TASK_NANOS, RECHECK_SWEEP_NANOS, END_TICK_NANOS}) {
+            histogram.reset();
+        }
+        lastShotTotal = 0L;
+        startedAtNanos = System.nanoTime();
+    }
+
+    /**
+     * @return A human-readable report, one line per metric
+     */
+    public static List<String> report() {
+        List<String> lines = new ArrayList<>();
+        long uptimeSeconds = Math.max(1L, (System.nanoTime() - startedAtNanos) / 1_000_000_000L);
+
+        lines.add(String.format("Since reset: %ds | tracked players: %d | live impacts: %d",
+                uptimeSeconds, trackedPlayers, liveImpacts));
+        lines.add(String.format("Shots: %d (%.2f/s now, %.2f/s avg, %d paired, %d clustered, %d packets rejected) | players scanned: %d",
+                SHOTS_RECEIVED.sum(), shotsPerSecond, (double) SHOTS_RECEIVED.sum() / uptimeSeconds,
+                SHOTS_MERGED.sum(), SHOTS_CLUSTERED.sum(), SHOT_PACKETS_REJECTED.sum(), PLAYERS_SCANNED.sum()));
+        lines.add(String.format("Transitions: %d enter, %d leave", ENTERS.sum(), LEAVES.sum()));
+        lines.add(String.format("Packets out: %d batches (%d play, %d stop) | area checks in: %d (%d dropped)",
+                BATCH_PACKETS_SENT.sum(), PLAY_COMMANDS_SENT.sum(), STOP_COMMANDS_SENT.sum(),
+                AREA_CHECKS_RECEIVED.sum(), AREA_CHECKS_DROPPED.sum()));
+        lines.add(formatCounts("Players per shot", PLAYERS_PER_SHOT));
+        lines.add(formatNanos("apply shot", APPLY_SHOT_NANOS));
+        lines.add(formatNanos("audience (worker)", AUDIENCE_TASK_NANOS));
+        lines.add(formatNanos("attenuation capture", ATTENUATION_CAPTURE_NANOS));
+        lines.add(formatNanos("area check task", AREA_CHECK_TASK_NANOS));
+        lines.add(formatNanos("re-check sweep", RECHECK_SWEEP_NANOS));
+        lines.add(formatNanos("end of tick", END_TICK_NANOS));
+        return lines;
+    }
+
+    /**
+     * Appends the report to {@link #METRICS_FILE} every {@code seconds} seconds, or stops doing so if 0.
+     */
+    public static synchronized void setFileInterval(int seconds) {
+        if (seconds == fileIntervalSeconds && (fileWriter != null) == (seconds > 0)) {
+            return;
+        }
+
+        if (fileWriter != null) {
+            fileWriter.cancel(false);
+            fileWriter = null;
+        }
+        fileIntervalSeconds = seconds;
+        if (seconds > 0) {
+            fileWriter = BackgroundExecutor.scheduleAtFixedRate(SoundMetrics::writeReport, seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void writeReport() {
+        try {
+            Files.createDirectories(METRICS_FILE.getParent());
+            try (Writer writer = Files.newBufferedWriter(METRICS_FILE, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write("=== " + LocalDateTime.now().format(TIME_FORMAT) + " ===" + System.lineSeparator());
+                for (String line : report()) {
+                    writer.write(line + System.lineSeparator());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to write metrics: {}", e.getMessage());
+        }
+    }
+
+    private static String formatCounts(String name, Log2Histogram histogram) {
+        return String.format("%s: n=%d mean=%.1f p50=%d p99=%d max=%d", name, histogram.getCount(), histogram.getMean(),
+                histogram.getPercentile(0.5), histogram.getPercentile(0.99), histogram.getMax());
+    }
+
+    private static String formatNanos(String name, Log2Histogram histogram) {
+        return String.format("%s: n=%d mean=%s p50=%s p99=%s max=%s", name, histogram.getCount(),
+                formatDuration((long) histogram.getMean()), formatDuration(histogram.getPercentile(0.5)),
+                formatDuration(histogram.getPercentile(0.99)), formatDuration(histogram.getMax()));
+    }
+
+    private static String formatDuration(long nanos) {
+        if (nanos >= 1_000_000L) {
+            return String.format("%.2fms", nanos / 1_000_000.0);
+        }
+        return String.format("%.1fus", nanos / 1_000.0);
+    }
+}
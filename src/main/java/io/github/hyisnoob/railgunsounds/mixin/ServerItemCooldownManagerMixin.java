@@ -0,0 +1,25 @@
+package io.github.hyisnoob.railgunsounds.mixin;
+
+import io.github.hyisnoob.railgunsounds.impact.RailgunShotDetector;
+import net.minecraft.entity.player.ServerItemCooldownManager;
+import net.minecraft.item.Item;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerItemCooldownManager.class)
+public class ServerItemCooldownManagerMixin {
+    @Shadow
+    @Final
+    private ServerPlayerEntity player;
+
+    // The railgun goes on cooldown on the server when it fires, so this is where a real shot is seen
+    @Inject(method = "onCooldownUpdate(Lnet/minecraft/item/Item;I)V", at = @At("TAIL"))
+    private void onCooldownStarted(Item item, int duration, CallbackInfo ci) {
+        RailgunShotDetector.onCooldownStarted(player, item);
+    }
+}
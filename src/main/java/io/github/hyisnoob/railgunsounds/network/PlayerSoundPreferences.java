@@ -0,0 +1,52 @@
+package io.github.hyisnoob.railgunsounds.network;
+
+import it.unimi.dsi.fastutil.ints.Int2ByteOpenHashMap;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/**
+ * Sound preferences synced by each client in a {@code PREFERENCES_PACKET_ID} packet, stored as a byte of flags
+ * per player. Players are keyed by entity id, which the server keeps when a player respawns.
+ * Players that never sent their preferences (e.g. older clients) count as having every sound enabled.
+ * Must only be accessed from the server thread.
+ *
+ * <p>Packet layout: a single byte of flags.
+ */
+public class PlayerSoundPreferences {
+    // The player disabled the railgun shot sound or set its volume to zero
+    public static final byte FLAG_SHOT_SOUND_MUTED = 1;
+
+    private static final Int2ByteOpenHashMap flags = new Int2ByteOpenHashMap();
+
+    /**
+     * Stores the flags received from the player's client.
+     */
+    public static void update(ServerPlayerEntity player, byte playerFlags) {
+        if (playerFlags == 0) {
+            // The default, so only players with something turned off take up space
+            flags.remove(player.getId());
+        } else {
+            flags.put(player.getId(), playerFlags);
+        }
+    }
+
+    /**
+     * @return true if the player should be left out of railgun shots entirely
+     */
+    public static boolean isShotSoundMuted(int playerId) {
+        return (flags.get(playerId) & FLAG_SHOT_SOUND_MUTED) != 0;
+    }
+
+    /**
+     * Drops the stored flags of a player (useful when player disconnects)
+     */
+    public static void forget(int playerId) {
+        flags.remove(playerId);
+    }
+
+    /**
+     * Drops the stored flags of every player, e.g. when the server stops.
+     */
+    public static void clear() {
+        flags.clear();
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.hyisnoob.railgunsounds.network;
+
+import java.util.List;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+
+/**
+ * Maps the mod's sound Identifiers to small integers, so sound commands carry a one-byte VarInt instead of
+ * the full Identifier string. The server sends its table to each client in a {@code SOUND_IDS_PACKET_ID}
+ * packet before using it; the client decodes with the table it received, so both sides agree even when
+ * their versions register different sounds. Immutable, so it can be read from the network threads.
+ *
+ * <p>Packet layout: VarInt count, then the Identifiers in id order.
+ * A sound written with {@link #writeSound} is a VarInt: 0 followed by an Identifier for sounds
+ * missing from the table, otherwise the table index plus one.
+ */
+public final class SoundIdTable {
+    private static final int LITERAL = 0;
+
+    private final Identifier[] ids;
+    private final Object2IntOpenHashMap<Identifier> indices = new Object2IntOpenHashMap<>();
+
+    public SoundIdTable(List<Identifier> soundIds) {
+        ids = soundIds.toArray(new Identifier[0]);
+        indices.defaultReturnValue(-1);
+        for (int i = 0; i < ids.length; i++) {
+            indices.put(ids[i], i);
+        }
+    }
+
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(ids.length);
+        for (Identifier id : ids) {
+            buf.writeIdentifier(id);
+        }
+    }
+
+    public static SoundIdTable read(PacketByteBuf buf) {
+        int count = buf.readVarInt();
+        Identifier[] soundIds = new Identifier[count];
+        for (int i = 0; i < count; i++) {
+            soundIds[i] = buf.readIdentifier();
+        }
+        return new SoundIdTable(List.of(soundIds));
+    }
+
+    /**
+     * Writes the sound as its table index, or as a literal Identifier if it is not in the table
+     * or the receiver has not been sent the table.
+     */
+    public void writeSound(PacketByteBuf buf, Identifier soundId, boolean interned) {
+        int index = interned ? indices.getInt(soundId) : -1;
+        if (index < 0) {
+            buf.writeVarInt(LITERAL);
+            buf.writeIdentifier(soundId);
+        } else {
+            buf.writeVarInt(index + 1);
+        }
+    }
+
+    /**
+     * Reads a sound written with {@link #writeSound}. The table may be null before the handshake,
+     * in which case only literal sounds can be read.
+     *
+     * @return The sound, or null if its index is not in the table
+     */
+    public static Identifier readSound(PacketByteBuf buf, SoundIdTable table) {
+        int index = buf.readVarInt();
+        if (index == LITERAL) {
+            return buf.readIdentifier();
+        }
+        return table != null && index > 0 && index <= table.ids.length ? table.ids[index - 1] : null;
+    }
+
+    /**
+     * Rough size of a sound written with {@link #writeSound}, used to size packet buffers.
+     */
+    public static int estimateSize(boolean interned) {
+        return interned ? 1 : 1 + 48;
+    }
+}
@@ -0,0 +1,337 @@
+package io.github.hyisnoob.railgunsounds.network;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.hyisnoob.railgunsounds.OrbitalRailgunSounds;
+import io.github.hyisnoob.railgunsounds.metrics.SoundMetrics;
+import io.github.hyisnoob.railgunsounds.registry.SoundsRegistry;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
+
+/**
+ * Per-tick outbound queue of sound commands. Every play/stop queued for a player during a tick
+ * is merged into a single {@code SOUND_BATCH_PACKET_ID} packet when the queue is flushed at the end of the tick.
+ * Commands are keyed by entity id, which the server keeps when a player respawns, and are sent to whichever
+ * entity holds that id in the player list at flush time. Must only be accessed from the server thread.
+ *
+ * <p>Packet layout: VarInt command count, then per command a byte op, the sound as written by
+ * {@link SoundIdTable#writeSound} and a VarInt impact id plus one (0 when the command is not tied to an impact).
+ * {@link #OP_PLAY} and {@link #OP_PLAY_AT} follow with volume and pitch as unsigned bytes (see {@link #quantize})
+ * and a VarInt distance to the impact in blocks, which the client uses to decide which sounds to keep
+ * when too many overlap. {@link #OP_PLAY_AT} adds a VarInt playback offset in milliseconds.
+ * An {@link #OP_STOP} tied to an impact stops only that impact's sound, whichever variant it is.
+ *
+ * <p>Sounds are written as table indices once the player has been sent the {@link SoundIdTable}
+ * with {@link #sendSoundIds}, and as full Identifiers before that.
+ *
+ * <p>Every method taking a player has an id-based counterpart, so the queue can be driven without a server.
+ */
+public class SoundPacketQueue {
+    public static final byte OP_PLAY = 0;
+    public static final byte OP_STOP = 1;
+    public static final byte OP_PLAY_AT = 2;
+
+    // Volume and pitch are sent in steps of 1/100, up to 2.55
+    private static final float QUANTIZATION_SCALE = 100.0f;
+
+    private static final SoundIdTable soundIds = new SoundIdTable(SoundsRegistry.NETWORK_SOUND_IDS);
+    // Players that have been sent the sound id table, by entity id
+    private static final IntOpenHashSet internedPlayers = new IntOpenHashSet();
+    private static final Int2ObjectOpenHashMap<PendingCommands> pending = new Int2ObjectOpenHashMap<>();
+    private static final ArrayDeque<PendingCommands> pool = new ArrayDeque<>();
+
+    /**
+     * Queues the sound of an impact to be played to the player at the end of the tick.
+     *
+     * @param distance The player's distance to the impact, in blocks
+     */
+    public static void queuePlay(ServerPlayerEntity player, int impactId, Identifier soundId, float volume, float pitch, double distance) {
+        queuePlay(player.getId(), impactId, soundId, volume, pitch, distance);
+    }
+
+    public static void queuePlay(int playerId, int impactId, Identifier soundId, float volume, float pitch, double distance) {
+        commandsFor(playerId).add(OP_PLAY, impactId, soundId, volume, pitch, distance);
+    }
+
+    /**
+     * Queues the sound of an impact to be played to the player at the end of the tick, starting the given number
+     * of milliseconds into the sound instead of from the beginning.
+     *
+     * @param distance The player's distance to the impact, in blocks
+     */
+    public static void queuePlayAt(ServerPlayerEntity player, int impactId, Identifier soundId, float volume, float pitch,
+                                   double distance, int offsetMs) {
+        queuePlayAt(player.getId(), impactId, soundId, volume, pitch, distance, offsetMs);
+    }
+
+    public static void queuePlayAt(int playerId, int impactId, Identifier soundId, float volume, float pitch,
+                                   double distance, int offsetMs) {
+        PendingCommands commands = commandsFor(playerId);
+        commands.add(offsetMs > 0 ? OP_PLAY_AT : OP_PLAY, impactId, soundId, volume, pitch, distance);
+        commands.offsetsMs[commands.size - 1] = Math.max(0, offsetMs);
+    }
+
+    /**
+     * Queues a stop of the impact's sound on the player's client. Sounds of other impacts keep playing.
+     * A play for the same impact queued earlier in the tick is dropped, since the stop would cut it anyway.
+     */
+    public static void queueStop(ServerPlayerEntity player, int impactId, Identifier soundId) {
+        queueStop(player.getId(), impactId, soundId);
+    }
+
+    public static void queueStop(int playerId, int impactId, Identifier soundId) {
+        PendingCommands commands = commandsFor(playerId);
+        commands.removePlays(impactId);
+        if (!commands.containsStop(impactId)) {
+            commands.add(OP_STOP, impactId, soundId, 0.0f, 0.0f, 0.0);
+        }
+    }
+
+    /**
+     * Sends one batch packet per player with queued commands. Called once at the end of every server tick.
+     * Commands queued for ids no longer in the player list are dropped.
+     */
+    public static void flush(MinecraftServer server) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // The player list holds the current entity of every id, including players who respawned this tick
+        List<ServerPlayerEntity> players = server.getPlayerManager().getPlayerList();
+        for (int i = 0, size = players.size(); i < size && !pending.isEmpty(); i++) {
+            ServerPlayerEntity player = players.get(i);
+            PendingCommands commands = pending.remove(player.getId());
+            if (commands == null) {
+                continue;
+            }
+
+            if (commands.size > 0 && !player.isDisconnected()
+                    && ServerPlayNetworking.canSend(player, OrbitalRailgunSounds.SOUND_BATCH_PACKET_ID)) {
+                ServerPlayNetworking.send(player, OrbitalRailgunSounds.SOUND_BATCH_PACKET_ID,
+                        encode(commands, internedPlayers.contains(player.getId())));
+                commands.recordMetrics();
+            }
+            recycle(commands);
+        }
+
+        for (PendingCommands commands : pending.values()) {
+            recycle(commands);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Encodes one batch packet per player with queued commands and hands it to the sink instead of sending it;
+     * the Minecraft-free core of {@link #flush(MinecraftServer)}, used to drive the queue without a server.
+     */
+    public static void flush(BatchSink sink) {
+        for (Int2ObjectMap.Entry<PendingCommands> entry : pending.int2ObjectEntrySet()) {
+            PendingCommands commands = entry.getValue();
+            if (commands.size > 0) {
+                sink.accept(entry.getIntKey(), encode(commands, internedPlayers.contains(entry.getIntKey())));
+                commands.recordMetrics();
+            }
+            recycle(commands);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Receives the encoded batch packets of {@link #flush(BatchSink)}.
+     */
+    @FunctionalInterface
+    public interface BatchSink {
+        void accept(int playerId, PacketByteBuf packet);
+    }
+
+    /**
+     * Drops everything queued for the player (useful when player disconnects)
+     */
+    public static void clear(int playerId) {
+        PendingCommands commands = pending.remove(playerId);
+        if (commands != null) {
+            recycle(commands);
+        }
+    }
+
+    /**
+     * Drops everything queued for every player and forgets who was sent the sound id table, e.g. when the server stops.
+     */
+    public static void clearAll() {
+        for (PendingCommands commands : pending.values()) {
+            recycle(commands);
+        }
+        pending.clear();
+        internedPlayers.clear();
+    }
+
+    /**
+     * Sends the sound id table to the player; commands flushed afterwards refer to sounds by index.
+     * Sent once the client has registered the channel, so older clients keep getting full Identifiers.
+     */
+    public static void sendSoundIds(ServerPlayerEntity player) {
+        ServerPlayNetworking.send(player, OrbitalRailgunSounds.SOUND_IDS_PACKET_ID, encodeSoundIds(player.getId()));
+    }
+
+    /**
+     * Encodes the sound id table for the player and marks them as having it, without sending anything;
+     * the Minecraft-free core of {@link #sendSoundIds}.
+     */
+    public static PacketByteBuf encodeSoundIds(int playerId) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        soundIds.write(buf);
+        internedPlayers.add(playerId);
+        return buf;
+    }
+
+    /**
+     * Forgets that the player was sent the sound id table (used when they disconnect).
+     */
+    public static void forget(int playerId) {
+        internedPlayers.remove(playerId);
+    }
+
+    /**
+     * @return The value as an unsigned byte, in steps of 1/100
+     */
+    public static int quantize(float value) {
+        return Math.max(0, Math.min(255, Math.round(value * QUANTIZATION_SCALE)));
+    }
+
+    public static float dequantize(int quantized) {
+        return quantized / QUANTIZATION_SCALE;
+    }
+
+    private static PendingCommands commandsFor(int playerId) {
+        PendingCommands commands = pending.get(playerId);
+        if (commands == null) {
+            commands = pool.isEmpty() ? new PendingCommands() : pool.pop();
+            pending.put(playerId, commands);
+        }
+        return commands;
+    }
+
+    private static PacketByteBuf encode(PendingCommands commands, boolean interned) {
+        // The packet takes ownership of the buffer once sent, so it is sized up front rather than recycled
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer(commands.estimateSize(interned)));
+        commands.write(buf, interned);
+        return buf;
+    }
+
+    private static void recycle(PendingCommands commands) {
+        commands.reset();
+        pool.push(commands);
+    }
+
+    /**
+     * Reusable list of the commands queued for one player, stored in parallel arrays.
+     */
+    private static class PendingCommands {
+        byte[] ops = new byte[4];
+        int[] impactIds = new int[4];
+        Identifier[] sounds = new Identifier[4];
+        float[] volumes = new float[4];
+        float[] pitches = new float[4];
+        int[] distances = new int[4];
+        int[] offsetsMs = new int[4];
+        int size;
+
+        void add(byte op, int impactId, Identifier sound, float volume, float pitch, double distance) {
+            if (size == ops.length) {
+                int capacity = size * 2;
+                ops = Arrays.copyOf(ops, capacity);
+                impactIds = Arrays.copyOf(impactIds, capacity);
+                sounds = Arrays.copyOf(sounds, capacity);
+                volumes = Arrays.copyOf(volumes, capacity);
+                pitches = Arrays.copyOf(pitches, capacity);
+                distances = Arrays.copyOf(distances, capacity);
+                offsetsMs = Arrays.copyOf(offsetsMs, capacity);
+            }
+            ops[size] = op;
+            impactIds[size] = impactId;
+            sounds[size] = sound;
+            volumes[size] = volume;
+            pitches[size] = pitch;
+            distances[size] = (int) Math.min(Integer.MAX_VALUE, Math.round(Math.max(0.0, distance)));
+            offsetsMs[size] = 0;
+            size++;
+        }
+
+        boolean containsStop(int impactId) {
+            for (int i = 0; i < size; i++) {
+                if (ops[i] == OP_STOP && impactIds[i] == impactId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void removePlays(int impactId) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (ops[i] != OP_STOP && impactIds[i] == impactId) {
+                    continue;
+                }
+                ops[kept] = ops[i];
+                impactIds[kept] = impactIds[i];
+                sounds[kept] = sounds[i];
+                volumes[kept] = volumes[i];
+                pitches[kept] = pitches[i];
+                distances[kept] = distances[i];
+                offsetsMs[kept] = offsetsMs[i];
+                kept++;
+            }
+            Arrays.fill(sounds, kept, size, null);
+            size = kept;
+        }
+
+        int estimateSize(boolean interned) {
+            // VarInt count + per command: op, sound, impact id, volume, pitch, distance, offset
+            return 5 + size * (1 + SoundIdTable.estimateSize(interned) + 2 + 2 + 2 + 3);
+        }
+
+        void write(PacketByteBuf buf, boolean interned) {
+            buf.writeVarInt(size);
+            for (int i = 0; i < size; i++) {
+                buf.writeByte(ops[i]);
+                soundIds.writeSound(buf, sounds[i], interned);
+                buf.writeVarInt(impactIds[i] + 1);
+                if (ops[i] != OP_STOP) {
+                    buf.writeByte(quantize(volumes[i]));
+                    buf.writeByte(quantize(pitches[i]));
+                    buf.writeVarInt(distances[i]);
+                }
+                if (ops[i] == OP_PLAY_AT) {
+                    buf.writeVarInt(offsetsMs[i]);
+                }
+            }
+        }
+
+        void recordMetrics() {
+            int stops = 0;
+            for (int i = 0; i < size; i++) {
+                if (ops[i] == OP_STOP) {
+                    stops++;
+                }
+            }
+            SoundMetrics.BATCH_PACKETS_SENT.increment();
+            SoundMetrics.STOP_COMMANDS_SENT.add(stops);
+            SoundMetrics.PLAY_COMMANDS_SENT.add(size - stops);
+        }
+
+        void reset() {
+            Arrays.fill(sounds, 0, size, null);
+            size = 0;
+        }
+    }
+}
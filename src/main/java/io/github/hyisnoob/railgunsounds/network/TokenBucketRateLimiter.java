@@ -0,0 +1,68 @@
+package io.github.hyisnoob.railgunsounds.network;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player token bucket used to rate limit client packets before any work is queued on the server thread.
+ * Safe to call from the network threads.
+ */
+public class TokenBucketRateLimiter {
+    private final double capacity;
+    private final double tokensPerNano;
+    private final Map<UUID, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity Maximum burst size
+     * @param tokensPerSecond Sustained rate at which tokens are refilled
+     */
+    public TokenBucketRateLimiter(double capacity, double tokensPerSecond) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000.0;
+    }
+
+    /**
+     * Takes a token from the player's bucket.
+     *
+     * @return true if the packet may be handled, false if it should be dropped
+     */
+    public boolean tryAcquire(UUID playerId) {
+        return buckets.computeIfAbsent(playerId, id -> new Bucket(capacity)).tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * Forgets the player's bucket (useful when player disconnects)
+     */
+    public void remove(UUID playerId) {
+        buckets.remove(playerId);
+    }
+
+    /**
+     * Forgets every bucket, e.g. when the server stops.
+     */
+    public void clear() {
+        buckets.clear();
+    }
+
+    private class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        Bucket(double tokens) {
+            this.tokens = tokens;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+            lastRefillNanos = now;
+
+            if (tokens < 1.0) {
+                return false;
+            }
+            tokens -= 1.0;
+            return true;
+        }
+    }
+}
@@ -2,8 +2,11 @@ package io.github.hyisnoob.railgunsounds.registry;
 
 import com.mojang.brigadier.arguments.BoolArgumentType;
 import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import io.github.hyisnoob.railgunsounds.config.ServerConfig;
+import io.github.hyisnoob.railgunsounds.logger.SoundLogger;
+import io.github.hyisnoob.railgunsounds.metrics.SoundMetrics;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
@@ -14,14 +17,19 @@ public class CommandRegistry {
         context.getSource().sendFeedback(() -> Text.literal("""
                 Available commands:
                 /orsounds radius <value> - Set the sound radius value
+                /orsounds tiers <near> <mid> - Set how far listeners hear the full sound and the shorter clip
+                /orsounds band <hysteresis> [vertical] - Set how far past the radius players leave it, and the vertical range (0 for none)
+                /orsounds cluster <distance> <milliseconds> - Play shots landing this close and this soon after each other as one (distance 0 to disable)
                 /orsounds debug <true|false> - Toggle debug mode
+                /orsounds dump - Write the recorded debug sound events to a file
+                /orsounds stats [reset] - Show (or reset) the sound system metrics
+                /orsounds stats file <seconds> - Write the metrics to a file every <seconds> (0 to stop)
                 /orsounds help - List all available commands
                 """), false);
         return 1;
     }
 
     public static void registerCommands() {
-        ServerConfig.INSTANCE.loadConfig();
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> dispatcher.register(CommandManager.literal("orsounds")
                 .executes(CommandRegistry::showHelp)
                 .then(CommandManager.literal("debug")
@@ -30,6 +38,36 @@ public class CommandRegistry {
                 .then(CommandManager.literal("radius")
                         .then(CommandManager.argument("value", DoubleArgumentType.doubleArg(0.0))
                                 .executes(context -> setRadiusValue(context, DoubleArgumentType.getDouble(context, "value")))))
+                .then(CommandManager.literal("tiers")
+                        .then(CommandManager.argument("near", DoubleArgumentType.doubleArg(0.0))
+                                .then(CommandManager.argument("mid", DoubleArgumentType.doubleArg(0.0))
+                                        .executes(context -> setTierRanges(context,
+                                                DoubleArgumentType.getDouble(context, "near"),
+                                                DoubleArgumentType.getDouble(context, "mid"))))))
+                .then(CommandManager.literal("band")
+                        .then(CommandManager.argument("hysteresis", DoubleArgumentType.doubleArg(0.0))
+                                .executes(context -> setRangeBand(context,
+                                        DoubleArgumentType.getDouble(context, "hysteresis"),
+                                        ServerConfig.INSTANCE.getSnapshot().getVerticalRange()))
+                                .then(CommandManager.argument("vertical", DoubleArgumentType.doubleArg(0.0))
+                                        .executes(context -> setRangeBand(context,
+                                                DoubleArgumentType.getDouble(context, "hysteresis"),
+                                                DoubleArgumentType.getDouble(context, "vertical"))))))
+                .then(CommandManager.literal("cluster")
+                        .then(CommandManager.argument("distance", DoubleArgumentType.doubleArg(0.0))
+                                .then(CommandManager.argument("milliseconds", IntegerArgumentType.integer(0))
+                                        .executes(context -> setShotClustering(context,
+                                                DoubleArgumentType.getDouble(context, "distance"),
+                                                IntegerArgumentType.getInteger(context, "milliseconds"))))))
+                .then(CommandManager.literal("dump")
+                        .executes(CommandRegistry::dumpSoundEvents))
+                .then(CommandManager.literal("stats")
+                        .executes(CommandRegistry::showStats)
+                        .then(CommandManager.literal("reset")
+                                .executes(CommandRegistry::resetStats))
+                        .then(CommandManager.literal("file")
+                                .then(CommandManager.argument("seconds", IntegerArgumentType.integer(0))
+                                        .executes(context -> setStatsFileInterval(context, IntegerArgumentType.getInteger(context, "seconds"))))))
                 .then(CommandManager.literal("help")
                         .executes(CommandRegistry::showHelp))));
     }
@@ -40,6 +78,62 @@ public class CommandRegistry {
         return 1;
     }
 
+    private static int dumpSoundEvents(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        // The file is written on the background thread; report back on the server thread
+        SoundLogger.dump(summary -> source.getServer().execute(
+                () -> source.sendFeedback(() -> Text.literal(summary), false)));
+        return 1;
+    }
+
+    private static int showStats(CommandContext<ServerCommandSource> context) {
+        for (String line : SoundMetrics.report()) {
+            context.getSource().sendFeedback(() -> Text.literal(line), false);
+        }
+        return 1;
+    }
+
+    private static int resetStats(CommandContext<ServerCommandSource> context) {
+        SoundMetrics.reset();
+        context.getSource().sendFeedback(() -> Text.literal("Sound metrics reset"), false);
+        return 1;
+    }
+
+    private static int setStatsFileInterval(CommandContext<ServerCommandSource> context, int seconds) {
+        ServerConfig.INSTANCE.setMetricsIntervalSeconds(seconds);
+        SoundMetrics.setFileInterval(seconds);
+        context.getSource().sendFeedback(() -> Text.literal(seconds > 0
+                ? "Writing metrics to file every " + seconds + "s"
+                : "Stopped writing metrics to file"), false);
+        return 1;
+    }
+
+    private static int setTierRanges(CommandContext<ServerCommandSource> context, double near, double mid) {
+        ServerConfig.INSTANCE.setTierRanges(near, mid);
+        ServerConfig.Snapshot config = ServerConfig.INSTANCE.getSnapshot();
+        context.getSource().sendFeedback(() -> Text.literal("Full sound up to " + config.getNearTierRange()
+                + " blocks, short clip up to " + config.getMidTierRange() + " blocks, rumble beyond"), false);
+        return 1;
+    }
+
+    private static int setRangeBand(CommandContext<ServerCommandSource> context, double hysteresis, double vertical) {
+        ServerConfig.INSTANCE.setRangeBand(hysteresis, vertical);
+        context.getSource().sendFeedback(() -> Text.literal("Players leave the range " + hysteresis
+                + " blocks past the radius; vertical range: " + (vertical > 0.0 ? vertical + " blocks" : "unlimited")), false);
+        return 1;
+    }
+
+    private static int setShotClustering(CommandContext<ServerCommandSource> context, double distance, int windowMs) {
+        ServerConfig.INSTANCE.setShotClustering(distance, windowMs);
+        if (distance <= 0.0) {
+            context.getSource().sendFeedback(() -> Text.literal("Shot clustering disabled"), false);
+        } else {
+            context.getSource().sendFeedback(() -> Text.literal("Shots within " + distance + " blocks and "
+                    + windowMs + "ms of each other are played as one"), false);
+        }
+        return 1;
+    }
+
     private static int setRadiusValue(CommandContext<ServerCommandSource> context, double radius) {
         ServerConfig.INSTANCE.setSoundRange(radius);
         context.getSource().sendFeedback(() -> Text.literal("Radius set to: " + radius), false);
@@ -1,5 +1,7 @@
 package io.github.hyisnoob.railgunsounds.registry;
 
+import java.util.List;
+
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
 import net.minecraft.sound.SoundEvent;
@@ -7,22 +9,51 @@ import net.minecraft.util.Identifier;
 
 public class SoundsRegistry {
     public static final String MOD_ID = "orbital_railgun_sounds";
-    public static final Identifier PLAY_SOUND_PACKET_ID = new Identifier(MOD_ID, "play_sound");
     public static final Identifier AREA_CHECK_PACKET_ID = new Identifier("orbital_railgun", "area_check_packet");
 
     public static final Identifier RAILGUN_SHOOT_ID = new Identifier(MOD_ID, "railgun_shoot");
     public static final Identifier SCOPE_ON_ID = new Identifier(MOD_ID, "scope_on");
     public static final Identifier EQUIP_ID = new Identifier(MOD_ID, "equip");
+    // Short, non-streamed variants of the shoot sound for listeners further from the impact
+    public static final Identifier RAILGUN_SHOOT_DISTANT_ID = new Identifier(MOD_ID, "railgun_shoot_distant");
+    public static final Identifier RAILGUN_RUMBLE_ID = new Identifier(MOD_ID, "railgun_rumble");
+
+    // Sounds referred to by index in sound commands, see SoundIdTable; the most frequent come first
+    public static final List<Identifier> NETWORK_SOUND_IDS = List.of(
+            RAILGUN_SHOOT_ID, RAILGUN_SHOOT_DISTANT_ID, RAILGUN_RUMBLE_ID, SCOPE_ON_ID, EQUIP_ID);
+
+    // How long the distant variants play for: the first 8 s of the shoot sound, and its first 2 s at pitch 0.6
+    public static final long DISTANT_CLIP_MS = 8025L;
+    public static final long RUMBLE_CLIP_MS = 3350L;
 
     public static final SoundEvent RAILGUN_SHOOT = registerSoundEvent(RAILGUN_SHOOT_ID);
     public static final SoundEvent SCOPE_ON = registerSoundEvent(SCOPE_ON_ID);
     public static final SoundEvent EQUIP = registerSoundEvent(EQUIP_ID);
+    public static final SoundEvent RAILGUN_SHOOT_DISTANT = registerSoundEvent(RAILGUN_SHOOT_DISTANT_ID);
+    public static final SoundEvent RAILGUN_RUMBLE = registerSoundEvent(RAILGUN_RUMBLE_ID);
 
     public static void initialize() {
         // This method is intentionally left blank.
         // Its purpose is to ensure the class is loaded and static initializers are run.
     }
 
+    /**
+     * @return true for the shoot sound and its distant variants
+     */
+    public static boolean isRailgunShotSound(Identifier id) {
+        return RAILGUN_SHOOT_ID.equals(id) || RAILGUN_SHOOT_DISTANT_ID.equals(id) || RAILGUN_RUMBLE_ID.equals(id);
+    }
+
+    /**
+     * @return How long the client plays the given shot sound for, or 0 for the whole sound
+     */
+    public static long getClipLengthMs(Identifier id) {
+        if (RAILGUN_SHOOT_DISTANT_ID.equals(id)) {
+            return DISTANT_CLIP_MS;
+        }
+        return RAILGUN_RUMBLE_ID.equals(id) ? RUMBLE_CLIP_MS : 0L;
+    }
+
     /**
      * Helper method to register a sound event.
      *
@@ -0,0 +1,163 @@
+package io.github.hyisnoob.railgunsounds.spatial;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.world.World;
+
+/**
+ * Coarse estimate of how much the terrain around an impact muffles its sound, computed once per impact
+ * so a listener lookup is a single array read. The surface height is sampled once per chunk and a line of
+ * sight is traced from the impact to every chunk: each sample along it where the terrain rises above the line
+ * (hills, walls, buildings) lowers the volume. Listeners well below the surface at their spot, in caves or
+ * under water, are muffled further. Unloaded chunks are treated as open ground.
+ *
+ * <p>Built in two steps: {@link #capture} reads the heights on the server thread, then
+ * {@link Heights#compute} traces the lines of sight anywhere. The finished map is immutable.
+ * Heights come from the {@link SurfaceHeightCache}, so shots landing near each other share the world reads.
+ */
+public final class AttenuationMap {
+    private static final int CELL_SHIFT = 4; // One sample per 16x16 chunk column
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+    private static final short UNKNOWN_HEIGHT = Short.MIN_VALUE; // The chunk was not loaded
+
+    // Heights above the ground the sound is emitted at and heard at
+    private static final double SOURCE_HEIGHT = 1.0;
+    private static final double EAR_HEIGHT = 1.6;
+    // Volume kept for each sample where the terrain blocks the line of sight, and the least left in total
+    private static final double BLOCKED_SAMPLE_FACTOR = 0.85;
+    private static final float MIN_ATTENUATION = 0.25f;
+    // Listeners this far below the surface are underground (or under water) and hear less again
+    private static final double UNDERGROUND_DEPTH = 6.0;
+    private static final float UNDERGROUND_FACTOR = 0.5f;
+
+    private final Heights heights;
+    private final float[] attenuation;
+
+    private AttenuationMap(Heights heights, float[] attenuation) {
+        this.heights = heights;
+        this.attenuation = attenuation;
+    }
+
+    /**
+     * Samples the surface height of every loaded chunk within the range of (x, z); the corners of the
+     * enclosing square are out of range and left unsampled. Must be called on the server thread;
+     * chunks that are not loaded are skipped rather than loaded.
+     */
+    public static Heights capture(World world, double x, double z, double range) {
+        int minCellX = ((int) Math.floor(x - range)) >> CELL_SHIFT;
+        int minCellZ = ((int) Math.floor(z - range)) >> CELL_SHIFT;
+        int maxCellX = ((int) Math.floor(x + range)) >> CELL_SHIFT;
+        int maxCellZ = ((int) Math.floor(z + range)) >> CELL_SHIFT;
+        int width = maxCellX - minCellX + 1;
+        int depth = maxCellZ - minCellZ + 1;
+
+        Long2IntOpenHashMap cachedHeights = SurfaceHeightCache.heightsOf(world);
+        double rangeSquared = range * range;
+        short[] surface = new short[width * depth];
+        for (int cellZ = 0; cellZ < depth; cellZ++) {
+            int chunkZ = minCellZ + cellZ;
+            double dz = distanceToCell(z, chunkZ);
+            for (int cellX = 0; cellX < width; cellX++) {
+                int chunkX = minCellX + cellX;
+                double dx = distanceToCell(x, chunkX);
+                int height = dx * dx + dz * dz <= rangeSquared
+                        ? SurfaceHeightCache.getHeight(world, cachedHeights, chunkX, chunkZ)
+                        : SurfaceHeightCache.UNKNOWN_HEIGHT;
+                surface[cellZ * width + cellX] = height == SurfaceHeightCache.UNKNOWN_HEIGHT ? UNKNOWN_HEIGHT : (short) height;
+            }
+        }
+        return new Heights(minCellX, minCellZ, width, depth, surface);
+    }
+
+    // Distance along one axis from a coordinate to the nearest block of a cell
+    private static double distanceToCell(double coordinate, int cell) {
+        double cellMin = cell << CELL_SHIFT;
+        return Math.max(0.0, Math.max(cellMin - coordinate, coordinate - (cellMin + CELL_SIZE)));
+    }
+
+    /**
+     * @return The factor (at most 1) to scale the impact's volume by for a listener at the given position;
+     * 1 outside the captured area
+     */
+    public float getAttenuation(double x, double y, double z) {
+        int index = heights.indexOf(x, z);
+        if (index < 0) {
+            return 1.0f;
+        }
+
+        short surface = heights.surface[index];
+        if (surface != UNKNOWN_HEIGHT && y < surface - UNDERGROUND_DEPTH) {
+            return attenuation[index] * UNDERGROUND_FACTOR;
+        }
+        return attenuation[index];
+    }
+
+    /**
+     * Surface heights around an impact, as captured on the server thread. Never modified after capture.
+     */
+    public static final class Heights {
+        private final int minCellX;
+        private final int minCellZ;
+        private final int width;
+        private final int depth;
+        private final short[] surface;
+
+        private Heights(int minCellX, int minCellZ, int width, int depth, short[] surface) {
+            this.minCellX = minCellX;
+            this.minCellZ = minCellZ;
+            this.width = width;
+            this.depth = depth;
+            this.surface = surface;
+        }
+
+        /**
+         * Traces the line of sight from the impact to every sampled chunk. Safe to call off the server thread.
+         */
+        public AttenuationMap compute(double sourceX, double sourceY, double sourceZ) {
+            float[] attenuation = new float[surface.length];
+            double sourceHeight = sourceY + SOURCE_HEIGHT;
+
+            for (int cellZ = 0; cellZ < depth; cellZ++) {
+                for (int cellX = 0; cellX < width; cellX++) {
+                    int index = cellZ * width + cellX;
+                    if (surface[index] == UNKNOWN_HEIGHT) {
+                        attenuation[index] = 1.0f;
+                        continue;
+                    }
+
+                    double targetX = ((minCellX + cellX) << CELL_SHIFT) + CELL_SIZE / 2.0;
+                    double targetZ = ((minCellZ + cellZ) << CELL_SHIFT) + CELL_SIZE / 2.0;
+                    double targetHeight = surface[index] + EAR_HEIGHT;
+                    int blocked = countBlockedSamples(sourceX, sourceHeight, sourceZ, targetX, targetHeight, targetZ);
+                    attenuation[index] = Math.max(MIN_ATTENUATION, (float) Math.pow(BLOCKED_SAMPLE_FACTOR, blocked));
+                }
+            }
+            return new AttenuationMap(this, attenuation);
+        }
+
+        private int countBlockedSamples(double fromX, double fromY, double fromZ, double toX, double toY, double toZ) {
+            double dx = toX - fromX;
+            double dz = toZ - fromZ;
+            int steps = (int) (Math.sqrt(dx * dx + dz * dz) / CELL_SIZE);
+            int blocked = 0;
+
+            // One sample per cell crossed, leaving out the cells of the impact and of the listener
+            for (int step = 1; step < steps; step++) {
+                double t = (double) step / steps;
+                int index = indexOf(fromX + dx * t, fromZ + dz * t);
+                if (index >= 0 && surface[index] != UNKNOWN_HEIGHT && surface[index] > fromY + (toY - fromY) * t) {
+                    blocked++;
+                }
+            }
+            return blocked;
+        }
+
+        private int indexOf(double x, double z) {
+            int cellX = ((int) Math.floor(x) >> CELL_SHIFT) - minCellX;
+            int cellZ = ((int) Math.floor(z) >> CELL_SHIFT) - minCellZ;
+            if (cellX < 0 || cellX >= width || cellZ < 0 || cellZ >= depth) {
+                return -1;
+            }
+            return cellZ * width + cellX;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.hyisnoob.railgunsounds.spatial;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+/**
+ * Immutable 2D (X/Z) grid over the indices of a set of positions, for range queries over data kept
+ * in parallel arrays. Indices are stored unboxed in one array, grouped by cell (a counting sort),
+ * so a query walks plain int ranges. Never modified after construction, so any number of threads
+ * can query it without locking once it has been published.
+ */
+public final class IndexGrid {
+    public static final int DEFAULT_CELL_SHIFT = 6; // 64 blocks per cell
+
+    private final int cellShift;
+    private final Long2IntOpenHashMap cellSlots; // Cell key to slot, for the occupied cells only
+    private final long[] cellKeys;               // Cell key of each slot
+    private final int[] cellStarts;              // Entries of slot s are entries[cellStarts[s]] until cellStarts[s + 1]
+    private final int[] entries;
+
+    /**
+     * Buckets the indices 0 (inclusive) to size (exclusive) by the cell of their position.
+     */
+    public IndexGrid(double[] x, double[] z, int size, int cellShift) {
+        this.cellShift = cellShift;
+
+        // First pass: find the occupied cells and count the entries in each
+        long[] keys = new long[Math.max(1, size)];
+        int[] counts = new int[Math.max(1, size)];
+        int[] slots = new int[size];
+        Long2IntOpenHashMap cellSlots = new Long2IntOpenHashMap(size);
+        cellSlots.defaultReturnValue(-1);
+        int cellCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            long key = cellKey(toCell(x[i]), toCell(z[i]));
+            int slot = cellSlots.get(key);
+            if (slot < 0) {
+                slot = cellCount++;
+                cellSlots.put(key, slot);
+                keys[slot] = key;
+            }
+            counts[slot]++;
+            slots[i] = slot;
+        }
+
+        // Second pass: lay the entries out cell by cell
+        int[] cellStarts = new int[cellCount + 1];
+        for (int slot = 0; slot < cellCount; slot++) {
+            cellStarts[slot + 1] = cellStarts[slot] + counts[slot];
+        }
+        int[] cursors = new int[cellCount];
+        System.arraycopy(cellStarts, 0, cursors, 0, cellCount);
+        int[] entries = new int[size];
+        for (int i = 0; i < size; i++) {
+            entries[cursors[slots[i]]++] = i;
+        }
+
+        this.cellSlots = cellSlots;
+        this.cellKeys = Arrays.copyOf(keys, cellCount);
+        this.cellStarts = cellStarts;
+        this.entries = entries;
+    }
+
+    public IndexGrid(double[] x, double[] z, int size) {
+        this(x, z, size, DEFAULT_CELL_SHIFT);
+    }
+
+    /**
+     * Visits every index in the cells overlapping the square that encloses the circle
+     * of the given range. Callers still need an exact distance check per index.
+     */
+    public void forEachInRange(double x, double z, double range, IntConsumer action) {
+        int minX = toCell(x - range);
+        int maxX = toCell(x + range);
+        int minZ = toCell(z - range);
+        int maxZ = toCell(z + range);
+        int cellCount = cellKeys.length;
+
+        long spannedCells = ((long) maxX - minX + 1) * ((long) maxZ - minZ + 1);
+        if (spannedCells > cellCount) {
+            // The query covers more cells than are occupied, so walking the occupied ones is cheaper
+            for (int slot = 0; slot < cellCount; slot++) {
+                int cellX = (int) (cellKeys[slot] >> 32);
+                int cellZ = (int) cellKeys[slot];
+                if (cellX >= minX && cellX <= maxX && cellZ >= minZ && cellZ <= maxZ) {
+                    visit(slot, action);
+                }
+            }
+            return;
+        }
+
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                int slot = cellSlots.get(cellKey(cellX, cellZ));
+                if (slot >= 0) {
+                    visit(slot, action);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private void visit(int slot, IntConsumer action) {
+        for (int i = cellStarts[slot], end = cellStarts[slot + 1]; i < end; i++) {
+            action.accept(entries[i]);
+        }
+    }
+
+    private int toCell(double coordinate) {
+        return (int) Math.floor(coordinate) >> cellShift;
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.hyisnoob.railgunsounds.spatial;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.world.World;
+
+/**
+ * Positions of the online players, captured on the server thread at one point in time and never modified,
+ * so worker threads can query it freely. Each world's positions are bucketed into an {@link IndexGrid}
+ * while capturing, so queries neither box player indices nor take a lock. Player references are only
+ * carried along to be handed back to the server thread; they must not be read from a worker.
+ * Snapshots built with {@link #ofIds} carry entity ids only, and their visitors get a null player.
+ */
+public class PlayerPositionSnapshot {
+    private final Map<RegistryKey<World>, WorldPositions> worlds;
+
+    private PlayerPositionSnapshot(Map<RegistryKey<World>, WorldPositions> worlds) {
+        this.worlds = worlds;
+    }
+
+    /**
+     * Captures the current positions of the players accepted by the filter. Must be called on the server thread.
+     */
+    public static PlayerPositionSnapshot capture(List<ServerPlayerEntity> players, Predicate<ServerPlayerEntity> filter) {
+        Map<RegistryKey<World>, WorldPositions.Builder> builders = new HashMap<>();
+        for (int i = 0, size = players.size(); i < size; i++) {
+            ServerPlayerEntity player = players.get(i);
+            if (filter.test(player)) {
+                builders.computeIfAbsent(player.getWorld().getRegistryKey(), key -> new WorldPositions.Builder())
+                        .add(player);
+            }
+        }
+
+        Map<RegistryKey<World>, WorldPositions> worlds = new HashMap<>();
+        builders.forEach((worldKey, builder) -> worlds.put(worldKey, builder.build()));
+        return new PlayerPositionSnapshot(worlds);
+    }
+
+    /**
+     * Builds a snapshot of players identified only by id and position, all in one world; the Minecraft-free
+     * counterpart of {@link #capture}, used to drive the shot dispatcher without a server.
+     * The arrays are copied, so the caller can keep moving its players.
+     */
+    public static PlayerPositionSnapshot ofIds(RegistryKey<World> worldKey, int[] ids, double[] x, double[] y, double[] z, int size) {
+        WorldPositions positions = new WorldPositions(new ServerPlayerEntity[size], Arrays.copyOf(ids, size),
+                Arrays.copyOf(x, size), Arrays.copyOf(y, size), Arrays.copyOf(z, size));
+        Map<RegistryKey<World>, WorldPositions> worlds = new HashMap<>();
+        worlds.put(worldKey, positions);
+        return new PlayerPositionSnapshot(worlds);
+    }
+
+    /**
+     * Visits the players of the given world whose grid cells overlap the range around (x, z).
+     * This is a coarse filter; callers must still do their own exact distance check.
+     */
+    public void forEachNearby(RegistryKey<World> worldKey, double x, double z, double range, PositionVisitor visitor) {
+        WorldPositions positions = worlds.get(worldKey);
+        if (positions == null) {
+            return;
+        }
+
+        positions.grid.forEachInRange(x, z, range, index -> visitor.visit(positions.players[index], positions.ids[index],
+                positions.x[index], positions.y[index], positions.z[index]));
+    }
+
+    @FunctionalInterface
+    public interface PositionVisitor {
+        /**
+         * @param player The player, or null in a snapshot built with {@link #ofIds}
+         */
+        void visit(ServerPlayerEntity player, int playerId, double x, double y, double z);
+    }
+
+    private static final class WorldPositions {
+        final ServerPlayerEntity[] players;
+        final int[] ids;
+        final double[] x;
+        final double[] y;
+        final double[] z;
+        final IndexGrid grid;
+
+        private WorldPositions(ServerPlayerEntity[] players, int[] ids, double[] x, double[] y, double[] z) {
+            this.players = players;
+            this.ids = ids;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.grid = new IndexGrid(x, z, players.length);
+        }
+
+        private static final class Builder {
+            ServerPlayerEntity[] players = new ServerPlayerEntity[16];
+            int[] ids = new int[16];
+            double[] x = new double[16];
+            double[] y = new double[16];
+            double[] z = new double[16];
+            int size;
+
+            void add(ServerPlayerEntity player) {
+                if (size == players.length) {
+                    int capacity = size * 2;
+                    players = Arrays.copyOf(players, capacity);
+                    ids = Arrays.copyOf(ids, capacity);
+                    x = Arrays.copyOf(x, capacity);
+                    y = Arrays.copyOf(y, capacity);
+                    z = Arrays.copyOf(z, capacity);
+                }
+                players[size] = player;
+                ids[size] = player.getId();
+                x[size] = player.getX();
+                y[size] = player.getY();
+                z[size] = player.getZ();
+                size++;
+            }
+
+            WorldPositions build() {
+                return new WorldPositions(Arrays.copyOf(players, size), Arrays.copyOf(ids, size), Arrays.copyOf(x, size),
+                        Arrays.copyOf(y, size), Arrays.copyOf(z, size));
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.hyisnoob.railgunsounds.spatial;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.World;
+
+/**
+ * Surface height of each chunk, sampled at its center and kept across shots, so a burst of shots around the
+ * same area reads each chunk from the world only once. Heights are dropped per world once they are
+ * {@link #MAX_AGE_TICKS} old, so terrain changes are picked up after a few seconds. Unloaded chunks are
+ * not cached, since they may load at any time. Must only be accessed from the server thread.
+ */
+public final class SurfaceHeightCache {
+    static final int UNKNOWN_HEIGHT = Integer.MIN_VALUE; // The chunk is not loaded
+    private static final long MAX_AGE_TICKS = 200L;
+
+    private static final Map<RegistryKey<World>, WorldHeights> worlds = new HashMap<>();
+
+    private static final class WorldHeights {
+        final Long2IntOpenHashMap heights = new Long2IntOpenHashMap();
+        long filledSince;
+
+        WorldHeights(long currentTime) {
+            heights.defaultReturnValue(UNKNOWN_HEIGHT);
+            filledSince = currentTime;
+        }
+    }
+
+    private SurfaceHeightCache() {
+    }
+
+    /**
+     * @return The cached heights of the given world, emptied first if they are too old to trust
+     */
+    static Long2IntOpenHashMap heightsOf(World world) {
+        long currentTime = world.getTime();
+        WorldHeights cached = worlds.computeIfAbsent(world.getRegistryKey(), key -> new WorldHeights(currentTime));
+        if (currentTime - cached.filledSince >= MAX_AGE_TICKS || currentTime < cached.filledSince) {
+            cached.heights.clear();
+            cached.filledSince = currentTime;
+        }
+        return cached.heights;
+    }
+
+    /**
+     * @return The surface height at the center of a chunk, or {@link #UNKNOWN_HEIGHT} if it is not loaded
+     */
+    static int getHeight(World world, Long2IntOpenHashMap heights, int chunkX, int chunkZ) {
+        long key = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+        int height = heights.get(key);
+        if (height != UNKNOWN_HEIGHT) {
+            return height;
+        }
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
+            return UNKNOWN_HEIGHT;
+        }
+
+        height = world.getTopY(Heightmap.Type.MOTION_BLOCKING_NO_LEAVES, (chunkX << 4) + 8, (chunkZ << 4) + 8);
+        heights.put(key, height);
+        return height;
+    }
+
+    /**
+     * Drops every cached height, e.g. when the server stops.
+     */
+    public static void clear() {
+        worlds.clear();
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.hyisnoob.railgunsounds.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single daemon thread for the mod's file I/O, so disk writes never run on the server thread.
+ * Tasks run one at a time in submission order.
+ */
+public class BackgroundExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger("orbital_railgun_sounds");
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Orbital Railgun Sounds I/O");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static void execute(Runnable task) {
+        EXECUTOR.execute(guarded(task));
+    }
+
+    public static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return EXECUTOR.schedule(guarded(task), delay, unit);
+    }
+
+    public static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return EXECUTOR.scheduleAtFixedRate(guarded(task), initialDelay, period, unit);
+    }
+
+    // An exception would otherwise be swallowed by the future (and cancel a repeating task)
+    private static Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Background task failed", e);
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.hyisnoob.railgunsounds.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Small pool of daemon threads for CPU work taken off the server thread.
+ * Tasks must not touch game state; they hand their results back with {@code server.execute}.
+ */
+public class WorkerPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger("orbital_railgun_sounds");
+    private static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "Orbital Railgun Sounds Worker #" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static void execute(Runnable task) {
+        EXECUTOR.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Worker task failed", e);
+            }
+        });
+    }
+}